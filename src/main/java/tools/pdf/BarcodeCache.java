@@ -0,0 +1,277 @@
+package tools.pdf;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.lowagie.text.Image;
+
+/**
+ * 二維碼快取<br>
+ * 同一內容的二維碼(ex: 分行網址、繳費帳號)在批次中重複出現時，不需每次重新編碼及產生圖片；<br>
+ * 依內容、格式、大小、容錯等級及顏色保存編碼後的 BitMatrix 或可直接放置的 Image，由所有匯出共用。<br>
+ * 以估計的記憶體用量為上限，超過時移除最久未使用的項目。
+ *
+ */
+public final class BarcodeCache {
+	/** 預設記憶體上限 16MB */
+	public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+	private static final BarcodeCache defaultCache = new BarcodeCache(DEFAULT_MAX_BYTES);
+
+	private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75F, true);
+	private long maxBytes;
+	private long footprint;
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	/**
+	 * @param maxBytes - 記憶體上限(bytes)，0 表示不快取
+	 */
+	public BarcodeCache(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * 取共用的快取
+	 *
+	 * @return
+	 */
+	public static BarcodeCache getDefault() {
+		return defaultCache;
+	}
+
+	/**
+	 * 取編碼後的二維碼，不在快取中時編碼，傳回的 BitMatrix 不可修改
+	 *
+	 * @param key     - 快取鍵
+	 * @param encoder - 編碼
+	 * @return
+	 * @throws Exception
+	 */
+	BitMatrix getMatrix(Key key, Callable<BitMatrix> encoder) throws Exception {
+		return (BitMatrix) get(key, encoder);
+	}
+
+	/**
+	 * 取二維碼圖片，不在快取中時產生；傳回複本，可設定位置及縮放
+	 *
+	 * @param key      - 快取鍵
+	 * @param renderer - 產生圖片
+	 * @return
+	 * @throws Exception
+	 */
+	Image getImage(Key key, Callable<Image> renderer) throws Exception {
+		return Image.getInstance((Image) get(key, renderer));
+	}
+
+	/**
+	 * 清除所有快取
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		footprint = 0;
+	}
+
+	/**
+	 * 設定記憶體上限，超過時立即移除最久未使用的項目
+	 *
+	 * @param maxBytes - 記憶體上限(bytes)，0 表示不快取
+	 */
+	public synchronized void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+		evict();
+	}
+
+	public synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * 取目前快取的項目數
+	 *
+	 * @return
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * 取目前快取估計的記憶體用量(bytes)
+	 *
+	 * @return
+	 */
+	public synchronized long getFootprint() {
+		return footprint;
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * 取命中率
+	 *
+	 * @return 0 ~ 1
+	 */
+	public synchronized double getHitRate() {
+		long total = hits + misses;
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "BarcodeCache[size=" + entries.size() + ", footprint=" + footprint + ", maxBytes=" + maxBytes
+				+ ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "]";
+	}
+
+	private Object get(Key key, Callable<?> loader) throws Exception {
+		Entry entry;
+		synchronized (this) {
+			entry = entries.get(key);
+			if (entry != null && entry.value != null) {
+				hits++;
+				return entry.value;
+			}
+			misses++;
+			if (entry == null && maxBytes > 0) {
+				entry = new Entry();
+				entries.put(key, entry);
+			}
+		}
+		// 不快取時直接產生
+		if (entry == null)
+			return loader.call();
+
+		// 同一內容只產生一次，其他執行緒等待產生完成；不同內容的產生不互相等待
+		synchronized (entry) {
+			if (entry.value == null) {
+				Object value;
+				try {
+					value = loader.call();
+				} catch (Exception e) {
+					synchronized (this) {
+						entries.remove(key, entry);
+					}
+					throw e;
+				}
+				long size = sizeOf(key, value);
+				synchronized (this) {
+					if (entries.get(key) == entry) {
+						entry.size = size;
+						footprint += size;
+					}
+					entry.value = value;
+					evict();
+				}
+			}
+			return entry.value;
+		}
+	}
+
+	private void evict() {
+		Iterator<Entry> it = entries.values().iterator();
+		while (footprint > maxBytes && it.hasNext()) {
+			Entry entry = it.next();
+			// 產生中的項目不移除
+			if (entry.value == null)
+				continue;
+			footprint -= entry.size;
+			evictions++;
+			it.remove();
+		}
+	}
+
+	/**
+	 * 估計項目佔用的記憶體
+	 */
+	private static long sizeOf(Key key, Object value) {
+		long size = 64 + 2L * key.content.length();
+		if (value instanceof BitMatrix) {
+			BitMatrix matrix = (BitMatrix) value;
+			size += 4L * matrix.getRowSize() * matrix.getHeight();
+		} else if (value instanceof Image) {
+			byte[] raw = ((Image) value).getRawData();
+			size += 256 + (raw == null ? 0 : raw.length);
+		}
+		return size;
+	}
+
+	/**
+	 * 快取鍵：內容、格式、大小、容錯等級、顏色及是否去除白邊
+	 */
+	static final class Key {
+		private final String content;
+		private final BarcodeFormat format;
+		private final int width;
+		private final int height;
+		private final ErrorCorrectionLevel errorCorrection;
+		private final int foreColor;
+		private final Integer backColor;
+		private final boolean noMargin;
+		private final boolean image;
+
+		/**
+		 * @param content         - 內容
+		 * @param format          - 格式
+		 * @param width           - 寬度
+		 * @param height          - 高度
+		 * @param errorCorrection - 容錯等級
+		 * @param foreColor       - 前景色
+		 * @param backColor       - 背景色，null 表示透明背景
+		 * @param noMargin        - 是否去除白邊
+		 * @param image           - true 時保存 Image，false 時保存 BitMatrix
+		 */
+		Key(String content, BarcodeFormat format, int width, int height, ErrorCorrectionLevel errorCorrection,
+				int foreColor, Integer backColor, boolean noMargin, boolean image) {
+			this.content = content;
+			this.format = format;
+			this.width = width;
+			this.height = height;
+			this.errorCorrection = errorCorrection;
+			this.foreColor = foreColor;
+			this.backColor = backColor;
+			this.noMargin = noMargin;
+			this.image = image;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return width == other.width && height == other.height && foreColor == other.foreColor
+					&& noMargin == other.noMargin && image == other.image && format == other.format
+					&& errorCorrection == other.errorCorrection && Objects.equals(backColor, other.backColor)
+					&& content.equals(other.content);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(content, format, width, height, errorCorrection, foreColor, backColor, noMargin,
+					image);
+		}
+	}
+
+	/**
+	 * 快取的 BitMatrix 或 Image
+	 */
+	private static final class Entry {
+		private volatile Object value;
+		private long size;
+	}
+}
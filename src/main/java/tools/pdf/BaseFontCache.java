@@ -0,0 +1,238 @@
+package tools.pdf;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.pdf.BaseFont;
+
+/**
+ * 字型快取<br>
+ * BaseFont.createFont 需讀取並解析字型檔，msjh.ttc、mingliu.ttc 等 CJK 字型檔數十 MB，<br>
+ * 因此依字型路徑、TTC 索引、編碼及是否嵌入保存已建立的 BaseFont，由所有匯出共用。<br>
+ * 以字型數及估計的記憶體用量(字型檔大小)為上限，超過時移除最久未使用的字型。
+ *
+ */
+public final class BaseFontCache {
+	/** 預設最多保存的字型數 */
+	public static final int DEFAULT_MAX_ENTRIES = 64;
+	/** 預設記憶體上限 256MB */
+	public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+	private static final BaseFontCache defaultCache = new BaseFontCache(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+
+	private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75F, true);
+	private int maxEntries;
+	private long maxBytes;
+	private long footprint;
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	/**
+	 * @param maxEntries - 最多保存的字型數
+	 * @param maxBytes   - 記憶體上限(bytes)，以字型檔大小估計
+	 */
+	public BaseFontCache(int maxEntries, long maxBytes) {
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * 取共用的快取
+	 *
+	 * @return
+	 */
+	public static BaseFontCache getDefault() {
+		return defaultCache;
+	}
+
+	/**
+	 * 取字型，不在快取中時建立
+	 *
+	 * @param fontPath - 字型路徑，TTC 字型以 "路徑,索引" 表示，ex: msjh.ttc,1
+	 * @param encoding - 編碼，ex: BaseFont.IDENTITY_H
+	 * @param embedded - 是否嵌入PDF
+	 * @return
+	 * @throws DocumentException
+	 * @throws IOException
+	 */
+	public BaseFont get(String fontPath, String encoding, boolean embedded) throws DocumentException, IOException {
+		Key key = new Key(fontPath, encoding, embedded);
+		Entry entry;
+		synchronized (this) {
+			entry = entries.get(key);
+			if (entry != null && entry.font != null) {
+				hits++;
+				return entry.font;
+			}
+			misses++;
+			if (entry == null) {
+				entry = new Entry();
+				entries.put(key, entry);
+			}
+		}
+
+		// 同一字型只建立一次，其他執行緒等待建立完成；不同字型的建立不互相等待
+		synchronized (entry) {
+			if (entry.font == null) {
+				BaseFont font;
+				try {
+					// 由本快取管理，不使用 BaseFont 內部沒有上限的快取
+					font = BaseFont.createFont(fontPath, encoding, embedded, false);
+				} catch (DocumentException | IOException | RuntimeException e) {
+					synchronized (this) {
+						entries.remove(key, entry);
+					}
+					throw e;
+				}
+				long size = new File(key.file).length();
+				synchronized (this) {
+					if (entries.get(key) == entry) {
+						entry.size = size;
+						footprint += size;
+					}
+					entry.font = font;
+					evict();
+				}
+			}
+			return entry.font;
+		}
+	}
+
+	/**
+	 * 清除所有快取
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		footprint = 0;
+	}
+
+	/**
+	 * 設定上限，超過時立即移除最久未使用的字型
+	 *
+	 * @param maxEntries - 最多保存的字型數
+	 * @param maxBytes   - 記憶體上限(bytes)
+	 */
+	public synchronized void setLimits(int maxEntries, long maxBytes) {
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+		evict();
+	}
+
+	public synchronized int getMaxEntries() {
+		return maxEntries;
+	}
+
+	public synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * 取目前快取的字型數
+	 *
+	 * @return
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * 取目前快取估計的記憶體用量(bytes)
+	 *
+	 * @return
+	 */
+	public synchronized long getFootprint() {
+		return footprint;
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * 取命中率
+	 *
+	 * @return 0 ~ 1
+	 */
+	public synchronized double getHitRate() {
+		long total = hits + misses;
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "BaseFontCache[size=" + entries.size() + ", footprint=" + footprint + ", hits=" + hits + ", misses="
+				+ misses + ", evictions=" + evictions + "]";
+	}
+
+	private void evict() {
+		Iterator<Entry> it = entries.values().iterator();
+		while ((entries.size() > maxEntries || footprint > maxBytes) && it.hasNext()) {
+			Entry entry = it.next();
+			// 建立中的字型不移除
+			if (entry.font == null)
+				continue;
+			footprint -= entry.size;
+			evictions++;
+			it.remove();
+		}
+	}
+
+	/**
+	 * 快取鍵：字型檔、TTC 索引、編碼、是否嵌入
+	 */
+	private static final class Key {
+		private final String file;
+		private final String index;
+		private final String encoding;
+		private final boolean embedded;
+
+		private Key(String fontPath, String encoding, boolean embedded) {
+			int comma = fontPath.toLowerCase().indexOf(".ttc,");
+			if (comma < 0) {
+				this.file = fontPath;
+				this.index = "";
+			} else {
+				this.file = fontPath.substring(0, comma + 4);
+				this.index = fontPath.substring(comma + 5).trim();
+			}
+			this.encoding = encoding;
+			this.embedded = embedded;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return embedded == other.embedded && file.equals(other.file) && index.equals(other.index)
+					&& Objects.equals(encoding, other.encoding);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(file, index, encoding, embedded);
+		}
+	}
+
+	/**
+	 * 快取的字型
+	 */
+	private static final class Entry {
+		private volatile BaseFont font;
+		private long size;
+	}
+}
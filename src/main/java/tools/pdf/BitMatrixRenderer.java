@@ -0,0 +1,123 @@
+package tools.pdf;
+
+import java.awt.Color;
+
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.BitMatrix;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Image;
+import com.lowagie.text.pdf.PdfArray;
+import com.lowagie.text.pdf.PdfContentByte;
+import com.lowagie.text.pdf.PdfDictionary;
+import com.lowagie.text.pdf.PdfName;
+import com.lowagie.text.pdf.PdfNumber;
+import com.lowagie.text.pdf.PdfString;
+import com.lowagie.text.pdf.codec.CCITTG4Encoder;
+
+/**
+ * 將二維碼的 BitMatrix 繪製為 PDF 向量圖形或 1-bit 圖片<br>
+ * 向量圖形：每列連續的深色模組合併為一個矩形，相鄰且相同的列再合併為較高的矩形，全部一次填色；<br>
+ * 圖片：每個像素 1 bit 直接由 BitMatrix 的列組成，以 CCITT G4 壓縮；<br>
+ * 都不經過 BufferedImage 及 PNG 編解碼。
+ *
+ */
+final class BitMatrixRenderer {
+
+	private BitMatrixRenderer() {
+	}
+
+	/**
+	 * 以目前的座標系繪製二維碼，每個模組 1 x 1 單位，呼叫端以 concatCTM 依欄位大小縮放；<br>
+	 * 直接寫入頁面內容，不另外建立 XObject，輸出的物件順序固定
+	 *
+	 * @param cb        - 繪製的目標
+	 * @param matrix    - 二維碼
+	 * @param foreColor - 前景色
+	 * @param backColor - 背景色，null 表示透明背景
+	 */
+	static void draw(PdfContentByte cb, BitMatrix matrix, Color foreColor, Color backColor) {
+		if (backColor != null) {
+			cb.setColorFill(backColor);
+			cb.rectangle(0, 0, matrix.getWidth(), matrix.getHeight());
+			cb.fill();
+		}
+		cb.setColorFill(foreColor);
+		drawModules(cb, matrix);
+	}
+
+	/**
+	 * 建立二維碼的 1-bit 圖片，每個 BitMatrix 像素為圖片的一個像素，以 CCITT G4 壓縮
+	 *
+	 * @param matrix    - 二維碼
+	 * @param foreColor - 前景色
+	 * @param backColor - 背景色，null 表示透明背景，此時圖片為遮罩，以目前的填色繪製
+	 * @return
+	 * @throws DocumentException
+	 */
+	static Image createImage(BitMatrix matrix, Color foreColor, Color backColor) throws DocumentException {
+		int width = matrix.getWidth();
+		int height = matrix.getHeight();
+		int rowBytes = (width + 7) / 8;
+		// CCITT 的 1 為黑色(深色模組)
+		byte[] bits = new byte[rowBytes * height];
+		BitArray row = new BitArray(width);
+		for (int y = 0; y < height; y++) {
+			row = matrix.getRow(y, row);
+			int offset = y * rowBytes;
+			int x = row.getNextSet(0);
+			while (x < width) {
+				bits[offset + (x >> 3)] |= 0x80 >>> (x & 7);
+				x = row.getNextSet(x + 1);
+			}
+		}
+		Image image = Image.getInstance(width, height, false, Image.CCITTG4, 0,
+				CCITTG4Encoder.compress(bits, width, height));
+		if (backColor == null) {
+			image.makeMask();
+		} else if (!Color.BLACK.equals(foreColor) || !Color.WHITE.equals(backColor)) {
+			// 非黑白時以兩色的索引色彩空間取代 DeviceGray，解碼後 0 為前景色
+			byte[] palette = { (byte) foreColor.getRed(), (byte) foreColor.getGreen(), (byte) foreColor.getBlue(),
+					(byte) backColor.getRed(), (byte) backColor.getGreen(), (byte) backColor.getBlue() };
+			PdfArray colorSpace = new PdfArray(PdfName.INDEXED);
+			colorSpace.add(PdfName.DEVICERGB);
+			colorSpace.add(new PdfNumber(1));
+			colorSpace.add(new PdfString(palette));
+			PdfDictionary additional = new PdfDictionary();
+			additional.put(PdfName.COLORSPACE, colorSpace);
+			image.setAdditional(additional);
+		}
+		return image;
+	}
+
+	/**
+	 * 繪製深色模組，BitMatrix 第 0 列在上方，PDF 座標原點在左下
+	 *
+	 * @param cb     - 繪製的目標
+	 * @param matrix - 二維碼
+	 */
+	static void drawModules(PdfContentByte cb, BitMatrix matrix) {
+		int width = matrix.getWidth();
+		int height = matrix.getHeight();
+		BitArray row = new BitArray(width);
+		BitArray next = new BitArray(width);
+		boolean empty = true;
+		int y = 0;
+		while (y < height) {
+			row = matrix.getRow(y, row);
+			// 內容相同的連續列合併繪製，條碼放大時每個模組佔多列
+			int rows = 1;
+			while (y + rows < height && (next = matrix.getRow(y + rows, next)).equals(row))
+				rows++;
+			int x = row.getNextSet(0);
+			while (x < width) {
+				int end = row.getNextUnset(x);
+				cb.rectangle(x, height - y - rows, end - x, rows);
+				empty = false;
+				x = end < width ? row.getNextSet(end) : width;
+			}
+			y += rows;
+		}
+		if (!empty)
+			cb.fill();
+	}
+}
@@ -0,0 +1,254 @@
+package tools.pdf;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.lowagie.text.pdf.BaseFont;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.RandomAccessFileOrArray;
+
+/**
+ * 已編譯的範本<br>
+ * 由 PdfTemplateConfig 讀取並解析一次後建立，保存範本路徑、範本 PDF 內容與所有已解析的設定；<br>
+ * 建立後內容不可變更，可由多個執行緒、多次匯出共用，匯出時不需再讀取設定檔及範本檔案。<br>
+ * 欄位索引、簽章驗證及每次匯出都採用編譯時讀取的同一份範本內容，範本檔案之後被修改也不影響。
+ *
+ */
+public final class CompiledTemplate {
+	/** 範本路徑檔名 */
+	private final String template;
+	/** 範本 PDF 內容，沒有範本時為 null */
+	private final byte[] pdf;
+	/** 範本設定 */
+	private final PdfTemplateModel model;
+	/** 範本欄位索引 */
+	private final TemplateFieldIndex fields;
+	/** 表單欄位的替代字型，第一次使用時建立 */
+	private volatile List<BaseFont> substitutionFonts;
+	/** 欄位字型設定對應的可用字型，依優先順序 */
+	private final ConcurrentHashMap<String, List<BaseFont>> fieldFonts = new ConcurrentHashMap<String, List<BaseFont>>();
+	/** 欄位字型設定對應的主要字型，文字都在主要字型時共用 */
+	private final ConcurrentHashMap<String, ArrayList<BaseFont>> primaryFonts = new ConcurrentHashMap<String, ArrayList<BaseFont>>();
+	/** 簽章驗證結果，第一次使用時驗證 */
+	private volatile TemplateSignatures signatures;
+
+	private CompiledTemplate(String template, byte[] pdf, PdfTemplateModel model, TemplateFieldIndex fields) {
+		this.template = template;
+		this.pdf = pdf;
+		this.model = model;
+		this.fields = fields;
+	}
+
+	/**
+	 * 由設定檔編譯範本
+	 *
+	 * @param config - 設定檔
+	 * @return 已編譯的範本
+	 * @throws Exception
+	 */
+	public static CompiledTemplate compile(PdfTemplateConfig config) throws Exception {
+		return compile(config, null);
+	}
+
+	/**
+	 * 由設定檔編譯範本，設定檔中有指定 &lt;Template&gt; 時優先採用
+	 *
+	 * @param config   - 設定檔，可為 null
+	 * @param template - 模版路徑檔名
+	 * @return 已編譯的範本
+	 * @throws Exception
+	 */
+	public static CompiledTemplate compile(PdfTemplateConfig config, String template) throws Exception {
+		PdfTemplateModel model = config == null ? PdfTemplateModel.empty() : config.readModel();
+		if (config != null) {
+			// 設定的字型在編譯時檢查，查不到時不等到匯出才失敗
+			for (String fontName : model.getFontNames())
+				FontResolver.getDefault().resolve(fontName);
+		}
+		if (StringUtils.isNotEmpty(model.getTemplate()))
+			template = PdfTemplateExport.resolveTemplate(model.getTemplate());
+
+		TemplateFieldIndex fields = TemplateFieldIndex.empty();
+		byte[] pdf = null;
+		if (StringUtils.isNotEmpty(template)) {
+			// 範本內容只讀取一次，欄位索引與之後的匯出都採用同一份
+			pdf = readTemplate(template);
+			PdfReader reader = new PdfReader(pdf);
+			try {
+				fields = TemplateFieldIndex.build(reader);
+			} finally {
+				reader.close();
+			}
+		}
+		return new CompiledTemplate(template, pdf, model, fields);
+	}
+
+	/**
+	 * 讀取範本內容，一般檔案由 TemplatePdfCache 取得，其他(如 URL)直接讀取
+	 */
+	private static byte[] readTemplate(String template) throws IOException {
+		byte[] pdf = TemplatePdfCache.getDefault().getBytes(template);
+		if (pdf != null)
+			return pdf;
+		RandomAccessFileOrArray file = new RandomAccessFileOrArray(template);
+		try {
+			pdf = new byte[file.length()];
+			file.readFully(pdf);
+			return pdf;
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * 取範本路徑檔名
+	 *
+	 * @return
+	 */
+	public String getTemplate() {
+		return template;
+	}
+
+	/**
+	 * 取編譯時讀取的範本內容，由多次匯出共用，不可修改
+	 *
+	 * @return 沒有範本時為 null
+	 */
+	byte[] getPdf() {
+		return pdf;
+	}
+
+	/**
+	 * 取範本設定
+	 *
+	 * @return
+	 */
+	public PdfTemplateModel getModel() {
+		return model;
+	}
+
+	/**
+	 * 取範本欄位索引
+	 *
+	 * @return
+	 */
+	public TemplateFieldIndex getFields() {
+		return fields;
+	}
+
+	/**
+	 * 取表單欄位的替代字型，由 TextFields 的 FontName 建立，預設字型在前，不重複<br>
+	 * 接在各欄位字型之後，組成 getFieldFonts 的字型
+	 *
+	 * @return
+	 * @throws Exception 字型無法建立
+	 */
+	public List<BaseFont> getSubstitutionFonts() throws Exception {
+		List<BaseFont> fonts = this.substitutionFonts;
+		if (fonts == null) {
+			// 不同名稱可能是同一個字型檔，依路徑去除重複
+			LinkedHashMap<String, BaseFont> fontMap = new LinkedHashMap<String, BaseFont>();
+			for (String fontName : model.getTextFields().getSubstitutionFontNames()) {
+				String fontPath = FontResolver.getDefault().resolve(fontName);
+				if (!fontMap.containsKey(fontPath))
+					fontMap.put(fontPath,
+							BaseFontCache.getDefault().get(fontPath, BaseFont.IDENTITY_H, BaseFont.NOT_EMBEDDED));
+			}
+			fonts = Collections.unmodifiableList(new ArrayList<BaseFont>(fontMap.values()));
+			this.substitutionFonts = fonts;
+		}
+		return fonts;
+	}
+
+	/**
+	 * 取範本的簽章驗證結果，由編譯時讀取的範本內容驗證一次
+	 *
+	 * @return
+	 * @throws IOException 範本無法讀取
+	 */
+	public TemplateSignatures getSignatures() throws IOException {
+		TemplateSignatures signatures = this.signatures;
+		if (signatures == null) {
+			synchronized (this) {
+				signatures = this.signatures;
+				if (signatures == null) {
+					if (pdf == null) {
+						signatures = TemplateSignatures.verify(template, null);
+					} else {
+						PdfReader reader = new PdfReader(pdf);
+						try {
+							signatures = TemplateSignatures.verify(template, reader);
+						} finally {
+							reader.close();
+						}
+					}
+					this.signatures = signatures;
+				}
+			}
+		}
+		return signatures;
+	}
+
+	/**
+	 * 建立此範本的匯出資料
+	 *
+	 * @return
+	 */
+	public ExportRequest newRequest() {
+		return new ExportRequest(this);
+	}
+
+	/**
+	 * 取欄位可用的字型，欄位設定的字型在前，之後為其他的替代字型，不重複
+	 *
+	 * @param fontName - 欄位設定的字型名稱，多個以","分隔
+	 * @return
+	 * @throws Exception 字型無法建立
+	 */
+	public List<BaseFont> getFieldFonts(String fontName) throws Exception {
+		List<BaseFont> fonts = fieldFonts.get(fontName);
+		if (fonts == null) {
+			LinkedHashMap<String, BaseFont> fontMap = new LinkedHashMap<String, BaseFont>();
+			for (String name : FontResolver.splitFontNames(fontName)) {
+				String fontPath = FontResolver.getDefault().resolve(name);
+				if (!fontMap.containsKey(fontPath))
+					fontMap.put(fontPath,
+							BaseFontCache.getDefault().get(fontPath, BaseFont.IDENTITY_H, BaseFont.NOT_EMBEDDED));
+			}
+			ArrayList<BaseFont> list = new ArrayList<BaseFont>(fontMap.values());
+			for (BaseFont font : getSubstitutionFonts()) {
+				if (!list.contains(font))
+					list.add(font);
+			}
+			fonts = Collections.unmodifiableList(list);
+			fieldFonts.putIfAbsent(fontName, fonts);
+		}
+		return fonts;
+	}
+
+	/**
+	 * 取只有欄位主要字型的替代字型，同一字型設定傳回同一個 List，不可修改<br>
+	 * 文字都在主要字型時使用，不需每個欄位建立新的 List
+	 *
+	 * @param fontName - 欄位設定的字型名稱，多個以","分隔
+	 * @return
+	 * @throws Exception 字型無法建立
+	 */
+	ArrayList<BaseFont> getPrimaryFonts(String fontName) throws Exception {
+		ArrayList<BaseFont> fonts = primaryFonts.get(fontName);
+		if (fonts == null) {
+			List<BaseFont> fieldFonts = getFieldFonts(fontName);
+			fonts = new ArrayList<BaseFont>(fieldFonts.isEmpty() ? fieldFonts : fieldFonts.subList(0, 1));
+			ArrayList<BaseFont> exists = primaryFonts.putIfAbsent(fontName, fonts);
+			if (exists != null)
+				fonts = exists;
+		}
+		return fonts;
+	}
+}
@@ -0,0 +1,93 @@
+package tools.pdf;
+
+import java.util.Map;
+
+/**
+ * 批次匯出的一筆資料，各類欄位值同 PdfTemplateExport.export 的參數，未使用的欄位可為 null
+ *
+ */
+public class ExportRecord {
+	private Map<String, Object> textFields;
+	private Map<String, Object> barcodeFields;
+	private Map<String, Object> qrcodeFields;
+	private Map<String, Object> imgFields;
+	private Map<String, PdfTemplateExport.TableFields> tableFields;
+	private Map<String, Object> checkboxFields;
+	private Map<String, Object> groupFields;
+
+	public ExportRecord() {
+	}
+
+	/**
+	 * @param textFields    - 文字欄位
+	 * @param barcodeFields - 條碼欄位
+	 * @param qrcodeFields  - 二維碼欄位
+	 * @param imgFields     - 圖片欄位，圖片位置或 byte[]
+	 * @param tableFields   - 表格欄位
+	 */
+	public ExportRecord(Map<String, Object> textFields, Map<String, Object> barcodeFields,
+			Map<String, Object> qrcodeFields, Map<String, Object> imgFields,
+			Map<String, PdfTemplateExport.TableFields> tableFields) {
+		this.textFields = textFields;
+		this.barcodeFields = barcodeFields;
+		this.qrcodeFields = qrcodeFields;
+		this.imgFields = imgFields;
+		this.tableFields = tableFields;
+	}
+
+	public Map<String, Object> getTextFields() {
+		return textFields;
+	}
+
+	public void setTextFields(Map<String, Object> textFields) {
+		this.textFields = textFields;
+	}
+
+	public Map<String, Object> getBarcodeFields() {
+		return barcodeFields;
+	}
+
+	public void setBarcodeFields(Map<String, Object> barcodeFields) {
+		this.barcodeFields = barcodeFields;
+	}
+
+	public Map<String, Object> getQrcodeFields() {
+		return qrcodeFields;
+	}
+
+	public void setQrcodeFields(Map<String, Object> qrcodeFields) {
+		this.qrcodeFields = qrcodeFields;
+	}
+
+	public Map<String, Object> getImgFields() {
+		return imgFields;
+	}
+
+	public void setImgFields(Map<String, Object> imgFields) {
+		this.imgFields = imgFields;
+	}
+
+	public Map<String, PdfTemplateExport.TableFields> getTableFields() {
+		return tableFields;
+	}
+
+	public void setTableFields(Map<String, PdfTemplateExport.TableFields> tableFields) {
+		this.tableFields = tableFields;
+	}
+
+	public Map<String, Object> getCheckboxFields() {
+		return checkboxFields;
+	}
+
+	public void setCheckboxFields(Map<String, Object> checkboxFields) {
+		this.checkboxFields = checkboxFields;
+	}
+
+	public Map<String, Object> getGroupFields() {
+		return groupFields;
+	}
+
+	public void setGroupFields(Map<String, Object> groupFields) {
+		this.groupFields = groupFields;
+	}
+}
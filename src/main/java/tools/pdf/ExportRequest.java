@@ -0,0 +1,294 @@
+package tools.pdf;
+
+/**
+ * 匯出資料<br>
+ * 依已編譯範本的欄位序號以陣列保存各欄位的值，設定及匯出時不需建立 Map，欄位值也不需再轉型；<br>
+ * 可重複使用，clear() 後填入下一筆資料，大量匯出時不產生額外的物件。<br>
+ * 欄位名稱必須在範本中，否則拋出 IllegalArgumentException；也可先以 TemplateFieldIndex.indexOf 取得序號再依序號設定。<br>
+ * 非執行緒安全，每個執行緒使用自己的 ExportRequest。
+ *
+ */
+public final class ExportRequest {
+	/** 欄位類型，匯出時依此順序處理 */
+	static final int TEXT = 1;
+	static final int BARCODE = 2;
+	static final int QRCODE = 3;
+	static final int IMAGE = 4;
+	static final int CHECKBOX = 5;
+	static final int GROUP = 6;
+	static final int TABLE = 7;
+
+	private final CompiledTemplate compiled;
+	private final TemplateFieldIndex fields;
+	/** 依欄位序號保存的值 */
+	private final Object[] values;
+	/** 依欄位序號保存的類型，0 表示未設定 */
+	private final byte[] kinds;
+	/** 已設定的欄位序號，依設定順序 */
+	private final int[] slots;
+	private int size;
+
+	/**
+	 * @param compiled - 已編譯的範本
+	 */
+	public ExportRequest(CompiledTemplate compiled) {
+		this.compiled = compiled;
+		this.fields = compiled.getFields();
+		this.values = new Object[fields.size()];
+		this.kinds = new byte[fields.size()];
+		this.slots = new int[fields.size()];
+	}
+
+	/**
+	 * 設定文字欄位
+	 *
+	 * @param name  - 欄位名稱
+	 * @param value - 文字，null 時為空白
+	 * @return
+	 */
+	public ExportRequest text(String name, String value) {
+		return text(indexOf(name), value);
+	}
+
+	/**
+	 * 設定文字欄位
+	 *
+	 * @param index - 欄位序號
+	 * @param value - 文字，null 時為空白
+	 * @return
+	 */
+	public ExportRequest text(int index, String value) {
+		return set(index, TEXT, value == null ? "" : value);
+	}
+
+	/**
+	 * 設定條碼欄位
+	 *
+	 * @param name  - 欄位名稱
+	 * @param value - 條碼值，null 時不繪製
+	 * @return
+	 */
+	public ExportRequest barcode(String name, String value) {
+		return barcode(indexOf(name), value);
+	}
+
+	/**
+	 * 設定條碼欄位
+	 *
+	 * @param index - 欄位序號
+	 * @param value - 條碼值，null 時不繪製
+	 * @return
+	 */
+	public ExportRequest barcode(int index, String value) {
+		return set(index, BARCODE, value);
+	}
+
+	/**
+	 * 設定二維碼欄位
+	 *
+	 * @param name  - 欄位名稱
+	 * @param value - 二維碼內容，null 時不繪製
+	 * @return
+	 */
+	public ExportRequest qrcode(String name, String value) {
+		return qrcode(indexOf(name), value);
+	}
+
+	/**
+	 * 設定二維碼欄位
+	 *
+	 * @param index - 欄位序號
+	 * @param value - 二維碼內容，null 時不繪製
+	 * @return
+	 */
+	public ExportRequest qrcode(int index, String value) {
+		return set(index, QRCODE, value);
+	}
+
+	/**
+	 * 設定圖片欄位
+	 *
+	 * @param name  - 欄位名稱
+	 * @param image - 圖片內容，null 時不繪製
+	 * @return
+	 */
+	public ExportRequest image(String name, byte[] image) {
+		return image(indexOf(name), image);
+	}
+
+	/**
+	 * 設定圖片欄位
+	 *
+	 * @param index - 欄位序號
+	 * @param image - 圖片內容，null 時不繪製
+	 * @return
+	 */
+	public ExportRequest image(int index, byte[] image) {
+		return set(index, IMAGE, image);
+	}
+
+	/**
+	 * 設定圖片欄位
+	 *
+	 * @param name     - 欄位名稱
+	 * @param location - 圖片位置(檔案路徑或 URL)，null 時不繪製
+	 * @return
+	 */
+	public ExportRequest image(String name, String location) {
+		return image(indexOf(name), location);
+	}
+
+	/**
+	 * 設定圖片欄位
+	 *
+	 * @param index    - 欄位序號
+	 * @param location - 圖片位置(檔案路徑或 URL)，null 時不繪製
+	 * @return
+	 */
+	public ExportRequest image(int index, String location) {
+		return set(index, IMAGE, location);
+	}
+
+	/**
+	 * 設定 CheckBox 欄位
+	 *
+	 * @param name    - 欄位名稱
+	 * @param checked - 是否勾選
+	 * @return
+	 */
+	public ExportRequest checkbox(String name, boolean checked) {
+		return checkbox(indexOf(name), checked);
+	}
+
+	/**
+	 * 設定 CheckBox 欄位
+	 *
+	 * @param index   - 欄位序號
+	 * @param checked - 是否勾選
+	 * @return
+	 */
+	public ExportRequest checkbox(int index, boolean checked) {
+		return set(index, CHECKBOX, checked ? Boolean.TRUE : null);
+	}
+
+	/**
+	 * 設定 Group 欄位
+	 *
+	 * @param name  - 欄位名稱
+	 * @param value - 選取的值，null 時不設定
+	 * @return
+	 */
+	public ExportRequest group(String name, String value) {
+		return group(indexOf(name), value);
+	}
+
+	/**
+	 * 設定 Group 欄位
+	 *
+	 * @param index - 欄位序號
+	 * @param value - 選取的值，null 時不設定
+	 * @return
+	 */
+	public ExportRequest group(int index, String value) {
+		return set(index, GROUP, value);
+	}
+
+	/**
+	 * 設定表格欄位
+	 *
+	 * @param name  - 欄位名稱
+	 * @param table - 表格資料，null 時不繪製
+	 * @return
+	 */
+	public ExportRequest table(String name, PdfTemplateExport.TableFields table) {
+		return table(indexOf(name), table);
+	}
+
+	/**
+	 * 設定表格欄位
+	 *
+	 * @param index - 欄位序號
+	 * @param table - 表格資料，null 時不繪製
+	 * @return
+	 */
+	public ExportRequest table(int index, PdfTemplateExport.TableFields table) {
+		return set(index, TABLE, table);
+	}
+
+	/**
+	 * 清除所有欄位值，供下一筆資料使用
+	 *
+	 * @return
+	 */
+	public ExportRequest clear() {
+		for (int i = 0; i < size; i++) {
+			kinds[slots[i]] = 0;
+			values[slots[i]] = null;
+		}
+		size = 0;
+		return this;
+	}
+
+	public CompiledTemplate getCompiledTemplate() {
+		return compiled;
+	}
+
+	/**
+	 * 取已設定的欄位數
+	 *
+	 * @return
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * 取第 i 個設定的欄位序號
+	 */
+	int slotAt(int i) {
+		return slots[i];
+	}
+
+	int kindOf(int slot) {
+		return kinds[slot];
+	}
+
+	Object valueOf(int slot) {
+		return values[slot];
+	}
+
+	private int indexOf(String name) {
+		int index = fields.indexOf(name);
+		if (index < 0)
+			throw new IllegalArgumentException("Field [" + name + "] not in template!");
+		return index;
+	}
+
+	/**
+	 * 設定欄位值，同一欄位再次設定時取代原本的值及類型，值為 null 時移除該欄位
+	 */
+	private ExportRequest set(int slot, int kind, Object value) {
+		if (value == null) {
+			if (kinds[slot] != 0)
+				remove(slot);
+			return this;
+		}
+		if (kinds[slot] == 0)
+			slots[size++] = slot;
+		kinds[slot] = (byte) kind;
+		values[slot] = value;
+		return this;
+	}
+
+	private void remove(int slot) {
+		kinds[slot] = 0;
+		values[slot] = null;
+		for (int i = 0; i < size; i++) {
+			if (slots[i] == slot) {
+				System.arraycopy(slots, i + 1, slots, i, size - i - 1);
+				size--;
+				break;
+			}
+		}
+	}
+}
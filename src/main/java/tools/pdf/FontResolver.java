@@ -0,0 +1,275 @@
+package tools.pdf;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.lowagie.text.pdf.BaseFont;
+
+/**
+ * 字型檔查詢<br>
+ * 第一次查詢時遞迴掃描字型目錄一次，建立字型名稱對應路徑的索引，之後的查詢不需再存取檔案系統。<br>
+ * 字型名稱可為檔名(ex: kaiu.ttf)，TTC 字型可加索引(ex: msjh.ttc,1)，也可用 TTC 內字型的 PostScript 名稱。<br>
+ * 字型目錄可由系統參數 pdf.font.dirs 指定，多個目錄以路徑分隔符號(Windows ";"，Linux ":")分隔，未指定時採用作業系統預設的字型目錄。
+ *
+ */
+public final class FontResolver {
+	private final static Logger logger = LoggerFactory.getLogger(FontResolver.class);
+	/** 指定字型目錄的系統參數 */
+	public static final String FONT_DIRS_PROPERTY = "pdf.font.dirs";
+	private static volatile FontResolver defaultResolver;
+
+	private final List<String> roots;
+	/** 掃描字型目錄的結果，名稱索引與 TTC 字型數一起更換 */
+	private volatile FontIndex index;
+
+	/**
+	 * @param roots - 字型目錄，依序查詢，同名字型以先找到的為準
+	 */
+	public FontResolver(List<String> roots) {
+		this.roots = Collections.unmodifiableList(new ArrayList<String>(roots));
+	}
+
+	/**
+	 * 取共用的字型查詢
+	 *
+	 * @return
+	 */
+	public static FontResolver getDefault() {
+		FontResolver resolver = defaultResolver;
+		if (resolver == null) {
+			synchronized (FontResolver.class) {
+				resolver = defaultResolver;
+				if (resolver == null) {
+					resolver = new FontResolver(getDefaultRoots());
+					defaultResolver = resolver;
+				}
+			}
+		}
+		return resolver;
+	}
+
+	/**
+	 * 設定共用的字型查詢，ex: 改用自訂的字型目錄
+	 *
+	 * @param resolver
+	 */
+	public static void setDefault(FontResolver resolver) {
+		defaultResolver = resolver;
+	}
+
+	/**
+	 * 取預設的字型目錄
+	 *
+	 * @return
+	 */
+	public static List<String> getDefaultRoots() {
+		List<String> roots = new ArrayList<String>();
+		String dirs = System.getProperty(FONT_DIRS_PROPERTY);
+		if (StringUtils.isNotBlank(dirs)) {
+			for (String dir : dirs.split(File.pathSeparator)) {
+				if (StringUtils.isNotBlank(dir))
+					roots.add(dir.trim());
+			}
+			return roots;
+		}
+
+		String osName = System.getProperty("os.name").toLowerCase();
+		String userHome = System.getProperty("user.home");
+		if (osName.contains("win")) {
+			roots.add(userHome + "\\AppData\\Local\\Microsoft\\Windows\\Fonts\\");
+			roots.add("C:\\Windows\\Fonts\\");
+			roots.add("C:\\pdf_fonts\\");
+		} else if (osName.contains("mac")) {
+			roots.add(userHome + "/Library/Fonts/");
+			roots.add("/Library/Fonts/");
+			roots.add("/System/Library/Fonts/");
+		} else {
+			roots.add("/usr/share/fonts/");
+			roots.add("/usr/local/share/fonts/");
+			roots.add(userHome + "/.local/share/fonts/");
+			roots.add(userHome + "/.fonts/");
+		}
+		return roots;
+	}
+
+	/**
+	 * 拆開多個字型名稱，TTC 的索引與字型檔視為同一個字型<br>
+	 * ex: "kaiu.ttf,msjh.ttc,1" → [kaiu.ttf, msjh.ttc,1]
+	 *
+	 * @param fontNames - 字型名稱，多個以","分隔
+	 * @return
+	 */
+	public static List<String> splitFontNames(String fontNames) {
+		List<String> names = new ArrayList<String>();
+		if (StringUtils.isBlank(fontNames))
+			return names;
+		for (String name : fontNames.split(",")) {
+			name = name.trim();
+			if (name.isEmpty())
+				continue;
+			int last = names.size() - 1;
+			if (last >= 0 && StringUtils.isNumeric(name) && names.get(last).toLowerCase().endsWith(".ttc")) {
+				names.set(last, names.get(last) + "," + name);
+			} else {
+				names.add(name);
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * 取字型檔的路徑<br>
+	 * 參數中有多字型，只會取得第1個字型的路徑；TTC 字型未指定索引時採用第1個字型
+	 *
+	 * @param fontName - 字型名稱
+	 * @return 字型路徑，TTC 字型含索引，可直接用於 BaseFont.createFont
+	 * @throws RuntimeException 查不到字型
+	 */
+	public String resolve(String fontName) throws RuntimeException {
+		List<String> names = splitFontNames(fontName);
+		if (names.isEmpty())
+			throw new RuntimeException(fontName + "於預設的查詢路徑中都查不到!");
+		String name = names.get(0);
+		if (names.size() > 1)
+			logger.info("參數[" + fontName + "]中有多字型，只取第1個字型[" + name + "]");
+
+		String file = name;
+		String ttcIndex = null;
+		int comma = name.toLowerCase().indexOf(".ttc,");
+		if (comma > -1) {
+			file = name.substring(0, comma + 4);
+			ttcIndex = name.substring(comma + 5);
+		}
+		// 絕對路徑直接採用
+		if (new File(file).isAbsolute() && new File(file).isFile())
+			return file.toLowerCase().endsWith(".ttc") ? file + "," + (ttcIndex == null ? "0" : ttcIndex) : file;
+
+		FontIndex index = getIndex();
+		String path = index.paths.get(file.toLowerCase());
+		if (path == null)
+			throw new RuntimeException(fontName + "於預設的查詢路徑中都查不到!");
+		if (ttcIndex != null) {
+			// 檔名查到的 TTC 路徑為 "路徑,0"，改為指定的索引
+			String ttcFile = path.substring(0, path.lastIndexOf(','));
+			Integer count = index.collections.get(ttcFile);
+			if (count != null && Integer.parseInt(ttcIndex) >= count)
+				throw new RuntimeException(fontName + "的索引超過字型檔內的字型數" + count + "!");
+			path = ttcFile + "," + ttcIndex;
+		}
+		return path;
+	}
+
+	/**
+	 * 字型是否存在
+	 *
+	 * @param fontName - 字型名稱
+	 * @return
+	 */
+	public boolean exists(String fontName) {
+		try {
+			resolve(fontName);
+			return true;
+		} catch (RuntimeException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * 重新掃描字型目錄，新增字型後使用；掃描完成前的查詢採用原索引
+	 */
+	public synchronized void refresh() {
+		index = scan();
+	}
+
+	public List<String> getRoots() {
+		return roots;
+	}
+
+	private FontIndex getIndex() {
+		FontIndex index = this.index;
+		if (index == null) {
+			synchronized (this) {
+				index = this.index;
+				if (index == null) {
+					index = scan();
+					this.index = index;
+				}
+			}
+		}
+		return index;
+	}
+
+	private FontIndex scan() {
+		HashMap<String, String> index = new HashMap<String, String>();
+		HashMap<String, Integer> collections = new HashMap<String, Integer>();
+		for (String root : roots) {
+			Path dir = Paths.get(root);
+			if (!Files.isDirectory(dir))
+				continue;
+			List<Path> files = new ArrayList<Path>();
+			try (Stream<Path> stream = Files.walk(dir, Integer.MAX_VALUE, FileVisitOption.FOLLOW_LINKS)) {
+				stream.filter(Files::isRegularFile).forEach(files::add);
+			} catch (IOException | RuntimeException e) {
+				logger.warn("字型目錄[" + root + "]讀取失敗: " + e.toString());
+			}
+			Collections.sort(files);
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				String lower = name.toLowerCase();
+				String path = file.toString();
+				if (lower.endsWith(".ttc")) {
+					index.putIfAbsent(lower, path + ",0");
+					indexCollection(path, index, collections);
+				} else if (lower.endsWith(".ttf") || lower.endsWith(".otf") || lower.endsWith(".afm")
+						|| lower.endsWith(".pfm")) {
+					index.putIfAbsent(lower, path);
+				}
+			}
+		}
+		logger.debug("字型目錄" + roots + "共 " + index.size() + " 個字型");
+		return new FontIndex(index, collections);
+	}
+
+	/**
+	 * 加入 TTC 內各字型的名稱及索引
+	 */
+	private static void indexCollection(String path, Map<String, String> index, Map<String, Integer> collections) {
+		try {
+			String[] names = BaseFont.enumerateTTCNames(path);
+			collections.put(path, names.length);
+			for (int i = 0; i < names.length; i++)
+				index.putIfAbsent(names[i].toLowerCase(), path + "," + i);
+		} catch (Exception e) {
+			logger.warn("字型檔[" + path + "]讀取失敗: " + e.toString());
+		}
+	}
+
+	/**
+	 * 字型目錄的索引，建立後不再修改
+	 */
+	private static final class FontIndex {
+		/** 字型名稱(小寫) → 路徑，TTC 字型的路徑含索引 */
+		private final Map<String, String> paths;
+		/** TTC 字型檔路徑 → 內含字型數 */
+		private final Map<String, Integer> collections;
+
+		private FontIndex(Map<String, String> paths, Map<String, Integer> collections) {
+			this.paths = Collections.unmodifiableMap(paths);
+			this.collections = Collections.unmodifiableMap(collections);
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package tools.pdf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.lowagie.text.pdf.BaseFont;
+
+/**
+ * 字型的字元涵蓋範圍<br>
+ * 以每 256 個字元為一個區塊，第一次查詢到該區塊時才由 BaseFont.charExists 建立點陣，之後的查詢只需讀取點陣。<br>
+ * 用於決定文字中每段字元使用的字型，CJK 擴展 B 等罕用字不在主要字型時改用其他字型。
+ *
+ */
+final class GlyphCoverage {
+	private static final int BLOCK_BITS = 8;
+	private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+	private static final int BLOCK_COUNT = (Character.MAX_CODE_POINT + 1) >> BLOCK_BITS;
+	/** 依字型保存，字型不再使用時一併釋放；不保存字型本身，否則字型永遠不會被釋放 */
+	private static final Map<BaseFont, GlyphCoverage> coverages = Collections
+			.synchronizedMap(new WeakHashMap<BaseFont, GlyphCoverage>());
+
+	/** 各區塊的點陣，null 表示尚未建立 */
+	private final AtomicReferenceArray<long[]> blocks = new AtomicReferenceArray<long[]>(BLOCK_COUNT);
+
+	private GlyphCoverage() {
+	}
+
+	/**
+	 * 取字型的字元涵蓋範圍
+	 *
+	 * @param font
+	 * @return
+	 */
+	static GlyphCoverage of(BaseFont font) {
+		GlyphCoverage coverage = coverages.get(font);
+		if (coverage == null) {
+			coverage = new GlyphCoverage();
+			GlyphCoverage exists = coverages.putIfAbsent(font, coverage);
+			if (exists != null)
+				coverage = exists;
+		}
+		return coverage;
+	}
+
+	/**
+	 * 字型是否有該字元
+	 *
+	 * @param font      - 此涵蓋範圍的字型
+	 * @param codePoint - Unicode 字碼
+	 * @return
+	 */
+	boolean covers(BaseFont font, int codePoint) {
+		int block = codePoint >> BLOCK_BITS;
+		long[] bits = blocks.get(block);
+		if (bits == null) {
+			// 同時建立時結果相同，不需等待
+			bits = buildBlock(font, block);
+			blocks.set(block, bits);
+		}
+		int bit = codePoint & (BLOCK_SIZE - 1);
+		return (bits[bit >> 6] & (1L << bit)) != 0;
+	}
+
+	/**
+	 * 字型是否有文字中的所有字元，空白等控制字元不檢查
+	 *
+	 * @param font - 此涵蓋範圍的字型
+	 * @param text
+	 * @return
+	 */
+	boolean coversAll(BaseFont font, String text) {
+		for (int i = 0; i < text.length();) {
+			int codePoint = text.codePointAt(i);
+			if (!Character.isWhitespace(codePoint) && !covers(font, codePoint))
+				return false;
+			i += Character.charCount(codePoint);
+		}
+		return true;
+	}
+
+	private static long[] buildBlock(BaseFont font, int block) {
+		long[] bits = new long[BLOCK_SIZE / 64];
+		int start = block << BLOCK_BITS;
+		for (int i = 0; i < BLOCK_SIZE; i++) {
+			int codePoint = start + i;
+			// 代理字元不是獨立的字元
+			if (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)
+				continue;
+			if (font.charExists(codePoint))
+				bits[i >> 6] |= 1L << i;
+		}
+		return bits;
+	}
+
+	/**
+	 * 依字元涵蓋範圍選擇文字需要的字型<br>
+	 * 主要字型(第一個)有所有字元時傳回 primary，不建立新的 List；否則每個字元依序選第一個有該字元的字型，傳回用到的字型
+	 *
+	 * @param fonts   - 可用的字型，依優先順序
+	 * @param primary - 只有主要字型的 List，同一字型設定共用，不可修改
+	 * @param text    - 文字
+	 * @return 用到的字型，依優先順序
+	 */
+	static ArrayList<BaseFont> select(List<BaseFont> fonts, ArrayList<BaseFont> primary, String text) {
+		if (fonts.isEmpty())
+			return primary;
+		BaseFont primaryFont = fonts.get(0);
+		GlyphCoverage primaryCoverage = of(primaryFont);
+		// 大部分的文字主要字型都有，不需逐字選擇
+		if (primaryCoverage.coversAll(primaryFont, text))
+			return primary;
+
+		boolean[] used = new boolean[fonts.size()];
+		used[0] = true;
+		for (int i = 0; i < text.length();) {
+			int codePoint = text.codePointAt(i);
+			i += Character.charCount(codePoint);
+			if (Character.isWhitespace(codePoint) || primaryCoverage.covers(primaryFont, codePoint))
+				continue;
+			for (int f = 1; f < fonts.size(); f++) {
+				BaseFont font = fonts.get(f);
+				if (of(font).covers(font, codePoint)) {
+					used[f] = true;
+					break;
+				}
+			}
+		}
+		ArrayList<BaseFont> selected = new ArrayList<BaseFont>(fonts.size());
+		for (int f = 0; f < fonts.size(); f++) {
+			if (used[f])
+				selected.add(fonts.get(f));
+		}
+		return selected;
+	}
+
+	/**
+	 * 取所有字型都沒有的字元，空白等控制字元不檢查
+	 *
+	 * @param fonts - 可用的字型
+	 * @param text  - 文字
+	 * @return 沒有時為 null
+	 */
+	static String uncovered(List<BaseFont> fonts, String text) {
+		StringBuilder uncovered = null;
+		for (int i = 0; i < text.length();) {
+			int codePoint = text.codePointAt(i);
+			i += Character.charCount(codePoint);
+			if (Character.isWhitespace(codePoint))
+				continue;
+			boolean found = false;
+			for (BaseFont font : fonts) {
+				if (of(font).covers(font, codePoint)) {
+					found = true;
+					break;
+				}
+			}
+			if (!found) {
+				if (uncovered == null)
+					uncovered = new StringBuilder();
+				uncovered.appendCodePoint(codePoint);
+			}
+		}
+		return uncovered == null ? null : uncovered.toString();
+	}
+}
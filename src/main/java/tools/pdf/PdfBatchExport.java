@@ -0,0 +1,523 @@
+package tools.pdf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.PdfSmartCopy;
+
+/**
+ * 批次匯出<br>
+ * 同一個範本匯出大量資料，範本 PDF 內容、字型、欄位索引只在開始時編譯一次，之後的每筆資料共用。<br>
+ * 資料逐筆讀取、匯出後立即交給呼叫端，同時只保留一筆資料的輸出，記憶體用量與批次筆數無關。<br>
+ * 批次開始後範本重新編譯(ex: TemplateRegistry 重新載入)或範本檔案被修改都不影響進行中的批次，所有資料採用同一版本的範本。<br>
+ * exportParallel 將每筆資料分配到多個執行緒同時匯出，每個 PdfStamper 只在一個執行緒中使用。<br>
+ * exportMerged 將所有資料合併為一個 PDF，供列印廠商一次列印。<br>
+ * 匯出設定有 prepareExecutor 時，逐筆匯出及合併匯出於匯出目前資料時先產生下一筆的條碼、二維碼及圖片。
+ *
+ */
+public class PdfBatchExport {
+	private final static Logger logger = LoggerFactory.getLogger(PdfBatchExport.class);
+	private final PdfTemplateExport export;
+	// 平行匯出的執行緒池，null 時每次批次依設定建立，批次結束時關閉
+	private volatile ExecutorService executor;
+	// 同時匯出的筆數，預設為 CPU 核心數
+	private volatile int parallelism = Runtime.getRuntime().availableProcessors();
+	// 是否使用 virtual thread，需 Java 21 以上，否則改用一般執行緒
+	private volatile boolean virtualThreads = false;
+	// 是否依資料順序處理輸出
+	private volatile boolean ordered = true;
+	// 最近一次平行批次各執行緒的匯出筆數及時間
+	private final ConcurrentHashMap<String, WorkerStats> workerStats = new ConcurrentHashMap<String, WorkerStats>();
+
+	/**
+	 * @param export - 匯出設定，可與其他執行緒共用
+	 */
+	public PdfBatchExport(PdfTemplateExport export) {
+		this.export = export;
+	}
+
+	/**
+	 * 批次匯出，每筆資料匯出後交給 handler 處理
+	 *
+	 * @param records - 資料
+	 * @param handler - 處理每筆的輸出，ex: 寫入檔案
+	 * @return 匯出筆數
+	 * @throws Exception 任一筆匯出或處理失敗時停止批次
+	 */
+	public long export(Iterator<? extends ExportRecord> records, RecordHandler handler) throws Exception {
+		CompiledTemplate compiled = export.getCompiledTemplate();
+		long start = System.nanoTime();
+		long index = 0;
+		Lookahead lookahead = new Lookahead(compiled, records);
+		try {
+			while (lookahead.next()) {
+				ByteArrayOutputStream bos = new ByteArrayOutputStream();
+				export.export(compiled, lookahead.record, bos, lookahead.assets);
+				handler.handle(index, lookahead.record, bos.toByteArray());
+				index++;
+			}
+		} finally {
+			lookahead.cancel();
+		}
+		logger.info("批次匯出 " + index + " 筆，耗時 " + (System.nanoTime() - start) / 1000000 + " ms");
+		return index;
+	}
+
+	/**
+	 * 批次匯出，每筆資料匯出後交給 handler 處理
+	 *
+	 * @param records - 資料
+	 * @param handler - 處理每筆的輸出，ex: 寫入檔案
+	 * @return 匯出筆數
+	 * @throws Exception 任一筆匯出或處理失敗時停止批次
+	 */
+	public long export(Iterable<? extends ExportRecord> records, RecordHandler handler) throws Exception {
+		return export(records.iterator(), handler);
+	}
+
+	/**
+	 * 合併匯出，所有資料依序附加到同一個 PDF<br>
+	 * 每筆資料填入並平面化後立即以 PdfSmartCopy 複製到輸出，內容相同的串流(範本背景、嵌入字型、圖片)只寫入一次；<br>
+	 * 複製後即釋放該筆資料，記憶體用量約為一筆資料，另加輸出 PDF 每個物件的索引。<br>
+	 * 每筆資料都由開始時的 CompiledTemplate 保存的範本內容匯出，批次中範本檔案被修改時合併的輸出也不會混合新舊版本。
+	 *
+	 * @param records - 資料，至少一筆
+	 * @param os      - 輸出串流，完成後關閉
+	 * @return 匯出筆數
+	 * @throws Exception 任一筆匯出失敗時停止，輸出串流不關閉
+	 */
+	public long exportMerged(Iterator<? extends ExportRecord> records, OutputStream os) throws Exception {
+		if (!records.hasNext())
+			throw new IllegalArgumentException("No records to merge!");
+		CompiledTemplate compiled = export.getCompiledTemplate();
+		long start = System.nanoTime();
+		Document document = new Document();
+		PdfSmartCopy copy = new PdfSmartCopy(document, os);
+		document.open();
+		// 每筆共用同一個緩衝區
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		long index = 0;
+		Lookahead lookahead = new Lookahead(compiled, records);
+		try {
+			while (lookahead.next()) {
+				bos.reset();
+				export.export(compiled, lookahead.record, bos, lookahead.assets);
+				PdfReader reader = new PdfReader(bos.toByteArray());
+				for (int page = 1; page <= reader.getNumberOfPages(); page++)
+					copy.addPage(copy.getImportedPage(reader, page));
+				copy.freeReader(reader);
+				reader.close();
+				index++;
+			}
+		} finally {
+			lookahead.cancel();
+		}
+		document.close();
+		logger.info("合併匯出 " + index + " 筆，耗時 " + (System.nanoTime() - start) / 1000000 + " ms");
+		return index;
+	}
+
+	/**
+	 * 合併匯出，所有資料依序附加到同一個 PDF
+	 *
+	 * @param records - 資料，至少一筆
+	 * @param os      - 輸出串流，完成後關閉
+	 * @return 匯出筆數
+	 * @throws Exception 任一筆匯出失敗時停止，輸出串流不關閉
+	 */
+	public long exportMerged(Iterable<? extends ExportRecord> records, OutputStream os) throws Exception {
+		return exportMerged(records.iterator(), os);
+	}
+
+	/**
+	 * 平行批次匯出，每筆資料由執行緒池匯出，handler 都在呼叫端的執行緒中執行<br>
+	 * 同時處理中的資料最多為 parallelism 的 2 倍，記憶體用量與批次筆數無關；<br>
+	 * ordered 為 true 時依資料順序交給 handler，否則依完成順序；<br>
+	 * 各執行緒共用開始時的 CompiledTemplate 保存的範本內容，批次中範本檔案被修改時每筆仍採用同一版本。
+	 *
+	 * @param records - 資料
+	 * @param handler - 處理每筆的輸出，ex: 寫入檔案
+	 * @return 匯出筆數
+	 * @throws Exception 任一筆匯出或處理失敗時取消其餘的資料並停止批次
+	 */
+	public long exportParallel(Iterator<? extends ExportRecord> records, RecordHandler handler) throws Exception {
+		final CompiledTemplate compiled = export.getCompiledTemplate();
+		int parallelism = Math.max(1, this.parallelism);
+		boolean ordered = this.ordered;
+		ExecutorService executor = this.executor;
+		boolean shutdown = executor == null;
+		final String virtualName = executor == null && virtualThreads ? "virtual" : null;
+		if (executor == null)
+			executor = virtualName != null ? newVirtualThreadExecutor(parallelism) : newPlatformExecutor(parallelism);
+		ExecutorCompletionService<Result> completion = ordered ? null
+				: new ExecutorCompletionService<Result>(executor);
+
+		workerStats.clear();
+		int window = parallelism * 2;
+		ArrayDeque<Future<Result>> pending = new ArrayDeque<Future<Result>>(window);
+		long start = System.nanoTime();
+		long index = 0;
+		try {
+			while (records.hasNext()) {
+				final ExportRecord record = records.next();
+				final long recordIndex = index++;
+				Callable<Result> task = () -> {
+					long taskStart = System.nanoTime();
+					byte[] pdf = export.export(compiled, record).toByteArray();
+					// virtual thread 每筆一個執行緒，合併統計
+					String worker = virtualName != null ? virtualName : Thread.currentThread().getName();
+					workerStats.computeIfAbsent(worker, WorkerStats::new).add(System.nanoTime() - taskStart);
+					return new Result(recordIndex, record, pdf);
+				};
+				pending.add(ordered ? executor.submit(task) : completion.submit(task));
+				if (pending.size() >= window)
+					handle(next(pending, completion), handler);
+			}
+			while (!pending.isEmpty())
+				handle(next(pending, completion), handler);
+		} catch (Exception | Error e) {
+			for (Future<Result> future : pending)
+				future.cancel(true);
+			throw e;
+		} finally {
+			if (shutdown)
+				executor.shutdownNow();
+		}
+
+		long elapsed = System.nanoTime() - start;
+		logger.info("平行批次匯出 " + index + " 筆，" + parallelism + " 個執行緒，耗時 " + elapsed / 1000000 + " ms");
+		for (WorkerStats stats : getWorkerStats())
+			logger.info(stats.toString());
+		return index;
+	}
+
+	/**
+	 * 平行批次匯出，每筆資料由執行緒池匯出，handler 都在呼叫端的執行緒中執行
+	 *
+	 * @param records - 資料
+	 * @param handler - 處理每筆的輸出，ex: 寫入檔案
+	 * @return 匯出筆數
+	 * @throws Exception 任一筆匯出或處理失敗時取消其餘的資料並停止批次
+	 */
+	public long exportParallel(Iterable<? extends ExportRecord> records, RecordHandler handler) throws Exception {
+		return exportParallel(records.iterator(), handler);
+	}
+
+	/**
+	 * 取下一筆完成的結果，依序時取最早送出的一筆
+	 */
+	private static Result next(ArrayDeque<Future<Result>> pending, ExecutorCompletionService<Result> completion)
+			throws Exception {
+		Future<Result> future;
+		if (completion == null) {
+			future = pending.poll();
+		} else {
+			future = completion.take();
+			pending.remove(future);
+		}
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception)
+				throw (Exception) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw e;
+		}
+	}
+
+	private static void handle(Result result, RecordHandler handler) throws Exception {
+		handler.handle(result.index, result.record, result.pdf);
+	}
+
+	private static ExecutorService newPlatformExecutor(int parallelism) {
+		final AtomicInteger count = new AtomicInteger();
+		ThreadFactory factory = runnable -> {
+			Thread thread = new Thread(runnable, "pdf-export-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+		return Executors.newFixedThreadPool(parallelism, factory);
+	}
+
+	/**
+	 * 建立 virtual thread 的執行緒池，以反射呼叫 Java 21 的 Executors.newVirtualThreadPerTaskExecutor
+	 */
+	private static ExecutorService newVirtualThreadExecutor(int parallelism) {
+		try {
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) method.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			logger.warn("執行環境不支援 virtual thread，改用 " + parallelism + " 個一般執行緒");
+			return newPlatformExecutor(parallelism);
+		}
+	}
+
+	/**
+	 * 設定平行匯出的執行緒池，由呼叫端管理，批次結束時不關閉；null 時每次批次依 parallelism 建立
+	 *
+	 * @param executor
+	 * @return
+	 */
+	public PdfBatchExport setExecutor(ExecutorService executor) {
+		this.executor = executor;
+		return this;
+	}
+
+	public ExecutorService getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * 設定同時匯出的筆數，預設為 CPU 核心數；使用 virtual thread 且圖片等資源需由網路讀取時可設定較大的值
+	 *
+	 * @param parallelism
+	 * @return
+	 */
+	public PdfBatchExport setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * 設定未指定執行緒池時是否使用 virtual thread，執行環境低於 Java 21 時改用一般執行緒
+	 *
+	 * @param virtualThreads
+	 * @return
+	 */
+	public PdfBatchExport setVirtualThreads(boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+		return this;
+	}
+
+	public boolean isVirtualThreads() {
+		return virtualThreads;
+	}
+
+	/**
+	 * 設定是否依資料順序交給 handler，預設 true；false 時依完成順序，較慢的資料不會延遲其他資料的輸出
+	 *
+	 * @param ordered
+	 * @return
+	 */
+	public PdfBatchExport setOrdered(boolean ordered) {
+		this.ordered = ordered;
+		return this;
+	}
+
+	public boolean isOrdered() {
+		return ordered;
+	}
+
+	/**
+	 * 取最近一次平行批次各執行緒的匯出統計
+	 *
+	 * @return
+	 */
+	public List<WorkerStats> getWorkerStats() {
+		List<WorkerStats> stats = new ArrayList<WorkerStats>(workerStats.values());
+		stats.sort((a, b) -> a.getName().compareTo(b.getName()));
+		return stats;
+	}
+
+	/**
+	 * 批次匯出，傳回的串流在讀取時才逐筆匯出<br>
+	 * 匯出失敗時讀取串流拋出 PdfBatchExport.ExportException
+	 *
+	 * @param records - 資料
+	 * @return 依資料順序的 PDF 內容
+	 * @throws Exception 範本編譯失敗
+	 */
+	public Stream<byte[]> export(Stream<? extends ExportRecord> records) throws Exception {
+		final CompiledTemplate compiled = export.getCompiledTemplate();
+		return records.map(record -> {
+			try {
+				return export.export(compiled, record).toByteArray();
+			} catch (Exception e) {
+				throw new ExportException(e);
+			}
+		});
+	}
+
+	/**
+	 * 處理每筆匯出的結果
+	 *
+	 */
+	@FunctionalInterface
+	public interface RecordHandler {
+		/**
+		 * @param index  - 資料序號，由 0 開始
+		 * @param record - 資料
+		 * @param pdf    - PDF 內容
+		 * @throws Exception
+		 */
+		void handle(long index, ExportRecord record, byte[] pdf) throws Exception;
+	}
+
+	/**
+	 * 平行匯出的一筆結果
+	 */
+	private static final class Result {
+		private final long index;
+		private final ExportRecord record;
+		private final byte[] pdf;
+
+		private Result(long index, ExportRecord record, byte[] pdf) {
+			this.index = index;
+			this.record = record;
+			this.pdf = pdf;
+		}
+	}
+
+	/**
+	 * 逐筆取資料，有 prepareExecutor 時先讀取下一筆並產生其條碼、二維碼及圖片，與目前資料的匯出同時進行
+	 */
+	private final class Lookahead {
+		private final CompiledTemplate compiled;
+		private final Iterator<? extends ExportRecord> records;
+		private final boolean prepare;
+		private ExportRecord record;
+		private PreparedAssets assets;
+		private ExportRecord nextRecord;
+		private PreparedAssets nextAssets;
+
+		private Lookahead(CompiledTemplate compiled, Iterator<? extends ExportRecord> records) {
+			this.compiled = compiled;
+			this.records = records;
+			this.prepare = export.getPrepareExecutor() != null;
+			if (prepare)
+				fetch();
+		}
+
+		/**
+		 * 移到下一筆資料
+		 *
+		 * @return 沒有資料時為 false
+		 */
+		private boolean next() {
+			if (!prepare) {
+				record = records.hasNext() ? records.next() : null;
+				return record != null;
+			}
+			record = nextRecord;
+			assets = nextAssets;
+			nextRecord = null;
+			nextAssets = null;
+			if (record == null)
+				return false;
+			fetch();
+			return true;
+		}
+
+		private void fetch() {
+			if (records.hasNext()) {
+				nextRecord = records.next();
+				nextAssets = export.prepare(compiled, nextRecord);
+			}
+		}
+
+		/**
+		 * 取消尚未完成的產生，批次結束或失敗時呼叫
+		 */
+		private void cancel() {
+			if (assets != null)
+				assets.cancel();
+			if (nextAssets != null)
+				nextAssets.cancel();
+		}
+	}
+
+	/**
+	 * 執行緒的匯出統計
+	 *
+	 */
+	public static final class WorkerStats {
+		private final String name;
+		private final AtomicLong records = new AtomicLong();
+		private final AtomicLong busyNanos = new AtomicLong();
+
+		private WorkerStats(String name) {
+			this.name = name;
+		}
+
+		private void add(long nanos) {
+			records.incrementAndGet();
+			busyNanos.addAndGet(nanos);
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * 取匯出筆數
+		 *
+		 * @return
+		 */
+		public long getRecords() {
+			return records.get();
+		}
+
+		/**
+		 * 取匯出花費的時間(奈秒)
+		 *
+		 * @return
+		 */
+		public long getBusyNanos() {
+			return busyNanos.get();
+		}
+
+		/**
+		 * 取每秒匯出筆數，以匯出花費的時間計算
+		 *
+		 * @return
+		 */
+		public double getRecordsPerSecond() {
+			long nanos = busyNanos.get();
+			return nanos == 0 ? 0 : records.get() * 1e9 / nanos;
+		}
+
+		@Override
+		public String toString() {
+			return name + ": " + getRecords() + " 筆，" + String.format("%.1f", getRecordsPerSecond()) + " 筆/秒";
+		}
+	}
+
+	/**
+	 * 串流中的匯出失敗，原因為原本的例外
+	 *
+	 */
+	public static class ExportException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		public ExportException(Throwable cause) {
+			super(cause);
+		}
+	}
+}
@@ -1,17 +1,16 @@
 package tools.pdf;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.xml.XMLConstants;
 import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
@@ -22,8 +21,6 @@ import javax.xml.validation.Validator;
 import org.apache.commons.lang3.StringUtils;
 import org.dom4j.Document;
 import org.dom4j.DocumentException;
-import org.dom4j.DocumentHelper;
-import org.dom4j.Element;
 import org.dom4j.io.SAXReader;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
@@ -33,6 +30,8 @@ public class PdfTemplateConfig implements Serializable {
 
     private static final long serialVersionUID = 4953379134268835529L;
     private static final String xsdFile = "config/PdfTemplateConfig.xsd";
+    /** 已編譯的 Schema 及 Validator 池，依 xsd 檔案區分 */
+    private static final ConcurrentHashMap<String, ValidatorPool> validatorPools = new ConcurrentHashMap<String, ValidatorPool>();
     
     /** 範本路徑，如果ClassPath或者WebRoot模式，則表示相對路徑 */
     private String config;
@@ -93,39 +92,48 @@ public class PdfTemplateConfig implements Serializable {
     public TreeMap<String, Object> readConfig() throws SAXParseException, DocumentException {
         TreeMap<String, Object> ResultCfg = new TreeMap<String, Object>();
         if (StringUtils.isNotBlank(this.getConfig())) {
-            Map<String, Object> XmlValidateResult = validateByXsd(this.getConfig(), xsdFile);
-            if ((boolean) XmlValidateResult.get("Result")) {
-                String xml = readXML(new File(this.getConfig())).asXML();
-                ResultCfg = createMapByXml(xml);
-            } else {
-                throw new SAXParseException((String) XmlValidateResult.get("Description"), null);
+            File file = new File(this.getConfig());
+            if (false == file.isFile()) {
+                throw new RuntimeException("File [" + file.getAbsolutePath() + "] not a exist!");
+            }
+            try {
+                // 單次讀取，驗證與建立設定資料同時進行
+                ResultCfg = PdfTemplateConfigLoader.load(file, getSchema(xsdFile));
+            } catch (SAXException | IOException | RuntimeException e) {
+                throw new SAXParseException(e.toString(), null);
             }
         }
         return ResultCfg;
     }
 
+    /**
+     * 讀取設定資料，並解析為範本設定<br>
+     * 數值、顏色、對齊、邊框等設定在此時解析完成，設定值無法解析時拋出例外
+     * 
+     * @return 範本設定
+     * @throws Exception
+     */
+    public PdfTemplateModel readModel() throws Exception {
+        return PdfTemplateModel.from(readConfig());
+    }
+
     /**
      * @param xmlFile
      * @param xsdFile
      * @return XmlValidateResult 通過Schema驗證指定的xml字串是否符合結構
      */
     public static Map<String, Object> validateByXsd(String xmlFile, String xsdFile) {
-        String xsdPathFile = getResourcesPath(xsdFile) + xsdFile;
-
         Map<String, Object> XmlValidateResult = new HashMap<String, Object>();
-        // 查找支援指定模式語言的 SchemaFactory 的實現並返回它
-        SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-        // 建構Schema Source
-        Source schemaFile = new StreamSource(new File(xsdPathFile));
-        Schema schema;
         try {
-            // 解析作為模式的指定源並以模式形式返回它
-            schema = factory.newSchema(schemaFile);
-            // 根據Schema檢查xml文檔的處理器,建立此 Schema 的新 Validator
-            Validator validator = schema.newValidator();
-            validator.setErrorHandler(new ConfigErrorHandler());
-            // 執行驗證
-            validator.validate(new StreamSource(xmlFile));
+            // 同一個 xsd 只編譯一次 Schema，Validator 由池中借用
+            ValidatorPool pool = getValidatorPool(xsdFile);
+            Validator validator = pool.borrow();
+            try {
+                // 執行驗證
+                validator.validate(new StreamSource(xmlFile));
+            } finally {
+                pool.release(validator);
+            }
             XmlValidateResult.put("Result", true);
         } catch (SAXException | IOException | RuntimeException e) {
             XmlValidateResult.put("Result", false);
@@ -135,64 +143,46 @@ public class PdfTemplateConfig implements Serializable {
     }
 
     /**
-     * 通過XML轉換為Map<String,Object>
+     * 取得已編譯的 Schema，同一個 xsd 在程序中只編譯一次
      * 
-     * @param xml 為String類型的Xml
-     * @return 第一個為Root節點，Root節點之後為Root的元素，如果為多層，可以通過key獲取下一層Map
-     * @throws DocumentException
+     * @param xsdFile xsd 檔案，ClassPath 相對路徑
+     * @return Schema，可由多執行緒共用
+     * @throws SAXException
      */
-    private static TreeMap<String, Object> createMapByXml(String xml) throws DocumentException {
-        Document doc = DocumentHelper.parseText(xml);
-        TreeMap<String, Object> map = new TreeMap<String, Object>();
-        if (doc == null)
-            return map;
-        Element rootElement = doc.getRootElement();
-        elementTomap(rootElement, map);
-        return map;
+    static Schema getSchema(String xsdFile) throws SAXException {
+        return getValidatorPool(xsdFile).schema;
     }
 
-    /***
-     * XmlToMap核心方法，遞迴呼叫
-     * 
-     * @param outele
-     * @param outmap
-     * @return
-     */
-    @SuppressWarnings("unchecked")
-    private static TreeMap<String, Object> elementTomap(Element outele, TreeMap<String, Object> outmap) {
-        List<Element> list = outele.elements();
-        int size = list.size();
-        if (size == 0) {
-            String outname = outele.attributeValue("id") == null ? outele.getName() : outele.attributeValue("id");
-            outmap.put(outname, outele.getTextTrim());
-        } else {
-            TreeMap<String, Object> innermap = new TreeMap<String, Object>();
-            for (Element ele1 : list) {
-                String eleName = ele1.getName();
-
-                Object obj = innermap.get(eleName);
-                if (obj == null) {
-                    elementTomap(ele1, innermap);
-                } else {
-                    if (obj instanceof java.util.Map) {
-                        List<TreeMap<String, Object>> list1 = new ArrayList<TreeMap<String, Object>>();
-                        list1.add((TreeMap<String, Object>) innermap.remove(eleName));
-                        elementTomap(ele1, innermap);
-                        list1.add((TreeMap<String, Object>) innermap.remove(eleName));
-                        innermap.put(eleName, list1);
-                    } else {
-                        elementTomap(ele1, innermap);
-                        ((List<TreeMap<String, Object>>) obj).add(innermap);
-                    }
+    private static ValidatorPool getValidatorPool(String xsdFile) throws SAXException {
+        ValidatorPool pool = validatorPools.get(xsdFile);
+        if (pool == null) {
+            synchronized (validatorPools) {
+                pool = validatorPools.get(xsdFile);
+                if (pool == null) {
+                    pool = new ValidatorPool(newSchema(xsdFile));
+                    validatorPools.put(xsdFile, pool);
                 }
             }
+        }
+        return pool;
+    }
 
-            String outname = outele.attributeValue("id") == null ? outele.getName() : outele.attributeValue("id");
-            outmap.put(outname, innermap);
+    private static Schema newSchema(String xsdFile) throws SAXException {
+        // 查找支援指定模式語言的 SchemaFactory 的實現並返回它，SchemaFactory 非執行緒安全，只在此處使用
+        SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        // 建構Schema Source，檔案不存在時改由 ClassLoader 載入(ex: 打包於 jar 中)
+        File xsdPathFile = new File(getResourcesPath(xsdFile) + xsdFile);
+        URL xsdResource = PdfTemplateConfig.class.getClassLoader().getResource(xsdFile);
+        Source schemaFile;
+        if (xsdPathFile.exists() || xsdResource == null) {
+            schemaFile = new StreamSource(xsdPathFile);
+        } else {
+            schemaFile = new StreamSource(xsdResource.toExternalForm());
         }
-        return outmap;
+        // 解析作為模式的指定源並以模式形式返回它
+        return factory.newSchema(schemaFile);
     }
-    
+
      /**
      * 獲取範本路徑，如果ClassPath或者WebRoot模式，則表示相對路徑
      * 
@@ -229,47 +219,6 @@ public class PdfTemplateConfig implements Serializable {
         this.resourceMode = resourceMode;
     }
     
-    /**
-     * 讀取解析XML文件
-     *
-     * @param file XML文件
-     * @return XML文檔物件
-     */
-    private static Document readXML(File file) {
-        if (file == null) {
-        	throw new RuntimeException("Xml file is null !");	
-        }
-        
-        if (false == file.exists()) {
-            throw new RuntimeException("File [" + file.getAbsolutePath() + "] not a exist!");
-        }
-        if (false == file.isFile()) {
-            throw new RuntimeException("[" + file.getAbsolutePath() + "] not a file!");
-        }
-
-        try {
-            file = file.getCanonicalFile();
-        } catch (IOException e) {
-            // ignore
-        }
-
-        BufferedInputStream in = null;
-        try {
-        	in = new BufferedInputStream(new FileInputStream(file));
-            return readXML(in);
-        } catch (Exception e) {
-        	throw new RuntimeException("File [" + file.getAbsolutePath() + "] not a exist!");
-        } finally {
-        	try {
-                if (in != null) {
-                    in.close();
-                }
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-        }
-    }
-    
     /**
      * 獲取Class 或 Resource 目錄
      * @param file
@@ -335,6 +284,51 @@ public class PdfTemplateConfig implements Serializable {
 		}
     }
 
+    /**
+     * Validator 池<br>
+     * Schema 可多執行緒共用，Validator 則非執行緒安全，因此每次驗證借用一個，用完重置後歸還
+     * 
+     */
+    private static final class ValidatorPool {
+        private static final int MAX_IDLE = Runtime.getRuntime().availableProcessors() * 2;
+        private static final ConfigErrorHandler errorHandler = new ConfigErrorHandler();
+
+        private final Schema schema;
+        private final ConcurrentLinkedQueue<Validator> idle = new ConcurrentLinkedQueue<Validator>();
+        private final AtomicInteger idleCount = new AtomicInteger();
+
+        private ValidatorPool(Schema schema) {
+            this.schema = schema;
+        }
+
+        private Validator borrow() {
+            Validator validator = idle.poll();
+            if (validator != null) {
+                idleCount.decrementAndGet();
+                return validator;
+            }
+            // 根據Schema檢查xml文檔的處理器,建立此 Schema 的新 Validator
+            validator = schema.newValidator();
+            validator.setErrorHandler(errorHandler);
+            return validator;
+        }
+
+        private void release(Validator validator) {
+            try {
+                // reset 會清除 ErrorHandler，需重新設定
+                validator.reset();
+                validator.setErrorHandler(errorHandler);
+            } catch (RuntimeException e) {
+                return;
+            }
+            if (idleCount.incrementAndGet() <= MAX_IDLE) {
+                idle.offer(validator);
+            } else {
+                idleCount.decrementAndGet();
+            }
+        }
+    }
+
     /**
      * 資源載入方式列舉
      * 
@@ -0,0 +1,157 @@
+package tools.pdf;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.StringTokenizer;
+import java.util.TreeMap;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.validation.Schema;
+import javax.xml.validation.ValidatorHandler;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * 設定檔載入<br>
+ * 以 SAX 單次讀取設定檔，讀取的同時依 Schema 驗證並建立設定資料，不需先轉為 Document 或 String 再解析。<br>
+ * 建立的結構與原 Document 轉 Map 的方式相同：有 id 屬性的節點以 id 為 key，沒有子節點的節點值為去除前後空白的文字。
+ *
+ */
+final class PdfTemplateConfigLoader extends DefaultHandler {
+	private static final SAXParserFactory parserFactory = SAXParserFactory.newInstance();
+	private static final ConfigErrorHandler errorHandler = new ConfigErrorHandler();
+
+	static {
+		parserFactory.setNamespaceAware(true);
+	}
+
+	private final Deque<Node> stack = new ArrayDeque<Node>();
+	private final TreeMap<String, Object> result = new TreeMap<String, Object>();
+
+	private PdfTemplateConfigLoader() {
+	}
+
+	/**
+	 * 讀取並驗證設定檔
+	 *
+	 * @param file   設定檔
+	 * @param schema 驗證用 Schema，null 表示不驗證
+	 * @return 第一個為Root節點，Root節點之後為Root的元素，如果為多層，可以通過key獲取下一層Map
+	 * @throws SAXException 設定檔不符合 Schema 或格式錯誤
+	 * @throws IOException
+	 */
+	static TreeMap<String, Object> load(File file, Schema schema) throws SAXException, IOException {
+		PdfTemplateConfigLoader loader = new PdfTemplateConfigLoader();
+		XMLReader reader = newXMLReader();
+		if (schema != null) {
+			// 驗證後的事件再交給 loader 建立設定資料
+			ValidatorHandler validatorHandler = schema.newValidatorHandler();
+			validatorHandler.setErrorHandler(errorHandler);
+			validatorHandler.setContentHandler(loader);
+			reader.setContentHandler(validatorHandler);
+		} else {
+			reader.setContentHandler(loader);
+		}
+		reader.setErrorHandler(errorHandler);
+		reader.parse(new InputSource(file.toURI().toString()));
+		return loader.result;
+	}
+
+	private static XMLReader newXMLReader() throws SAXException {
+		try {
+			// SAXParserFactory 非執行緒安全
+			synchronized (parserFactory) {
+				return parserFactory.newSAXParser().getXMLReader();
+			}
+		} catch (ParserConfigurationException e) {
+			throw new SAXException(e);
+		}
+	}
+
+	@Override
+	public void startElement(String uri, String localName, String qName, Attributes attributes) {
+		Node parent = stack.peek();
+		if (parent != null) {
+			parent.hasChildren = true;
+		}
+		String name = localName == null || localName.isEmpty() ? qName : localName;
+		stack.push(new Node(name, attributes.getValue("id")));
+	}
+
+	@Override
+	public void characters(char[] ch, int start, int length) {
+		Node node = stack.peek();
+		if (node != null && !node.hasChildren) {
+			node.text.append(ch, start, length);
+		}
+	}
+
+	@Override
+	public void endElement(String uri, String localName, String qName) {
+		Node node = stack.pop();
+		Object value = node.hasChildren ? node.children : trim(node.text);
+		Node parent = stack.peek();
+		put(parent == null ? result : parent.children, node, value);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void put(TreeMap<String, Object> map, Node node, Object value) {
+		String key = node.id == null ? node.name : node.id;
+		Object exists = map.get(key);
+		if (exists == null || node.id != null) {
+			map.put(key, value);
+		} else if (exists instanceof List) {
+			// 同名且沒有 id 的節點，以 List 保存
+			((List<Object>) exists).add(value);
+		} else {
+			List<Object> list = new ArrayList<Object>();
+			list.add(exists);
+			list.add(value);
+			map.put(key, list);
+		}
+	}
+
+	/**
+	 * 去除前後空白，中間連續空白轉為一個空白
+	 */
+	private static String trim(StringBuilder text) {
+		StringTokenizer tokenizer = new StringTokenizer(text.toString());
+		if (!tokenizer.hasMoreTokens()) {
+			return "";
+		}
+		String first = tokenizer.nextToken();
+		if (!tokenizer.hasMoreTokens()) {
+			return first;
+		}
+		StringBuilder sb = new StringBuilder(first);
+		while (tokenizer.hasMoreTokens()) {
+			sb.append(' ').append(tokenizer.nextToken());
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * 讀取中的節點
+	 */
+	private static final class Node {
+		private final String name;
+		private final String id;
+		private final TreeMap<String, Object> children = new TreeMap<String, Object>();
+		private final StringBuilder text = new StringBuilder();
+		private boolean hasChildren;
+
+		private Node(String name, String id) {
+			this.name = name;
+			this.id = id;
+		}
+	}
+}
@@ -1,26 +1,30 @@
 package tools.pdf;
 
 import java.awt.Color;
-import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
-import java.lang.reflect.Field;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
 
-import javax.imageio.ImageIO;
-
-import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,9 +36,7 @@ import com.google.zxing.MultiFormatWriter;
 import com.google.zxing.WriterException;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
-import com.lowagie.text.Element;
 import com.lowagie.text.Font;
-import com.lowagie.text.FontFactory;
 import com.lowagie.text.Image;
 import com.lowagie.text.Phrase;
 import com.lowagie.text.Rectangle;
@@ -44,47 +46,49 @@ import com.lowagie.text.pdf.Barcode128;
 import com.lowagie.text.pdf.Barcode39;
 import com.lowagie.text.pdf.BarcodePostnet;
 import com.lowagie.text.pdf.BaseFont;
-import com.lowagie.text.pdf.PdfArray;
 import com.lowagie.text.pdf.PdfContentByte;
-import com.lowagie.text.pdf.PdfDictionary;
-import com.lowagie.text.pdf.PdfName;
 import com.lowagie.text.pdf.PdfNumber;
 import com.lowagie.text.pdf.PdfPCell;
-import com.lowagie.text.pdf.PdfPKCS7;
 import com.lowagie.text.pdf.PdfPTable;
 import com.lowagie.text.pdf.PdfReader;
 import com.lowagie.text.pdf.PdfRectangle;
 import com.lowagie.text.pdf.PdfStamper;
+import com.lowagie.text.pdf.PdfTemplate;
 
 /**
- * 利用 PDF Form 模版產生有資料值的 PDF
+ * 利用 PDF Form 模版產生有資料值的 PDF<br>
+ * 匯出過程中的狀態都保存在每次匯出的 ExportContext，同一個物件可由多個執行緒同時匯出。
  * 
  */
 public class PdfTemplateExport {
 	private final static Logger logger = LoggerFactory.getLogger(PdfTemplateExport.class);
-	private String template;
-	private PdfTemplateConfig config;
-	// msjh.ttc 微軟正黑, mingliu.ttc 細明體, kaiu.ttf 標楷, simhei.ttf 黑體, simsun.ttc 微軟宋體,
-	// simfang.ttf 仿宋
+	// 輸出檔案的緩衝大小
+	private static final int FILE_BUFFER_SIZE = 64 * 1024;
+	// 表格每次寫入的列數
+	private static final int TABLE_FLUSH_ROWS = 256;
+	private volatile String template;
+	private volatile PdfTemplateConfig config;
+	// 已編譯的範本，第一次匯出時由設定檔編譯，之後的匯出共用
+	private volatile CompiledTemplate compiledTemplate;
 	// PDF 預設配置
-	private String DefaultFontName = "kaiu.ttf";
-	private float DefaultFontSize = 12F;
-	private Color DefaultFontColor = Color.BLACK;
-	private int DefaultFontStyle = Font.NORMAL;
-	private Color DefaultBroundColor = Color.WHITE;
-	private float DefaultBorderWidth = 0.5F;
-	private int DefaultBorder = Rectangle.NO_BORDER;
-	private int DefaultVAlign = Element.ALIGN_MIDDLE;
-	private int DefaultHAlign = Element.ALIGN_LEFT;
-	private int DefaultRectangle = Rectangle.NO_BORDER;
-	// QrCode 預設配置
-	private int qrCodeWidth;
-	private int qrCodeHeight;
-	private int qrCodeForeColor = 0xFF000000;
-	private Integer qrCodeBackColor = 0xFFFFFFFF;
-	private Integer qrCodeMargin = 2;
-	private ErrorCorrectionLevel qrCodeErrorCorrection = ErrorCorrectionLevel.M;
-	private Charset charset = StandardCharsets.UTF_8;
+	private static final int DefaultBorder = PdfTemplateModel.DEFAULT_BORDER;
+	private static final int DefaultVAlign = PdfTemplateModel.DEFAULT_VALIGN;
+	// QrCode 預設配置，寬高及容錯等級依欄位設定
+	private final int qrCodeForeColor = 0xFF000000;
+	private final Integer qrCodeBackColor = 0xFFFFFFFF;
+	private final Integer qrCodeMargin = 2;
+	private final Charset charset = StandardCharsets.UTF_8;
+	// Aztec 容錯百分比，依 L、M、Q、H 順序
+	private static final int[] AZTEC_ERROR_CORRECTION = { 7, 15, 25, 30 };
+	// 範本中沒有的欄位是否拒絕匯出，預設略過
+	private volatile boolean rejectUnknownFields = false;
+	// 範本簽章的處理方式，驗證結果依範本版本快取
+	private volatile SignaturePolicy signaturePolicy = SignaturePolicy.LOG;
+	// 預先產生條碼、二維碼及圖片的執行緒池，null 時於匯出的執行緒中產生
+	private volatile Executor prepareExecutor;
+	// 表格行的字型及單元格風格，依行設定建立一次，範本重新編譯後舊的設定自動釋放
+	private final Map<PdfTemplateModel.ColumnConfig, ColumnStyle> columnStyles = Collections
+			.synchronizedMap(new WeakHashMap<PdfTemplateModel.ColumnConfig, ColumnStyle>());
 
 	/**
 	 * @param template - 模版路徑檔名
@@ -107,37 +111,117 @@ public class PdfTemplateExport {
 		this.config = config;
 	}
 
+	/**
+	 * @param compiledTemplate - 已編譯的範本，可由多個 PdfTemplateExport 共用
+	 * 
+	 */
+	public PdfTemplateExport(CompiledTemplate compiledTemplate) {
+		this.compiledTemplate = compiledTemplate;
+		this.template = compiledTemplate.getTemplate();
+	}
+
 	/**
 	 * 設定模版路徑檔名
 	 * 
 	 * @param template
 	 */
-	public void setTemplate(String template) {
+	public synchronized void setTemplate(String template) {
 		if (StringUtils.isNotEmpty(template)) {
-			if (template.toString().toLowerCase()
-					.startsWith(PdfTemplateConfig.ResourceMode.CLASSPATH.toString().toLowerCase())) {
-				template = template.substring((PdfTemplateConfig.ResourceMode.CLASSPATH.toString() + ":").length(),
-						template.length());
-				this.template = getResourcesPath(template) + template;
-			} else if (template.toString().toLowerCase()
-					.startsWith(PdfTemplateConfig.ResourceMode.WEB_ROOT.toString().toLowerCase())) {
-				template = template.substring((PdfTemplateConfig.ResourceMode.WEB_ROOT.toString() + ":").length(),
-						template.length());
-				this.template = getWebRootPath() + template;
-			} else if (template.toString().toLowerCase()
-					.startsWith(PdfTemplateConfig.ResourceMode.FILE.toString().toLowerCase())) {
-				template = template.substring((PdfTemplateConfig.ResourceMode.CLASSPATH.toString() + ":").length(),
-						template.length());
-				;
-				this.template = template;
-			} else {
-				this.template = template;
-			}
+			this.template = resolveTemplate(template);
+			this.compiledTemplate = null;
 		}
 	}
 
-	public void setConfig(PdfTemplateConfig config) {
+	public synchronized void setConfig(PdfTemplateConfig config) {
 		this.config = config;
+		this.compiledTemplate = null;
+	}
+
+	/**
+	 * 取已編譯的範本，尚未編譯時由設定檔編譯一次
+	 * 
+	 * @return 已編譯的範本
+	 * @throws Exception
+	 */
+	public CompiledTemplate getCompiledTemplate() throws Exception {
+		CompiledTemplate compiled = this.compiledTemplate;
+		if (compiled == null) {
+			synchronized (this) {
+				compiled = this.compiledTemplate;
+				if (compiled == null) {
+					compiled = CompiledTemplate.compile(config, template);
+					this.compiledTemplate = compiled;
+				}
+			}
+		}
+		return compiled;
+	}
+
+	public boolean isRejectUnknownFields() {
+		return rejectUnknownFields;
+	}
+
+	/**
+	 * 設定範本中沒有的欄位是否拒絕匯出，true 時於建立 PdfStamper 前拋出 IllegalArgumentException，false 時略過該欄位
+	 * 
+	 * @param rejectUnknownFields
+	 */
+	public void setRejectUnknownFields(boolean rejectUnknownFields) {
+		this.rejectUnknownFields = rejectUnknownFields;
+	}
+
+	public SignaturePolicy getSignaturePolicy() {
+		return signaturePolicy;
+	}
+
+	/**
+	 * 設定範本簽章的處理方式，預設 LOG
+	 * 
+	 * @param signaturePolicy
+	 */
+	public void setSignaturePolicy(SignaturePolicy signaturePolicy) {
+		this.signaturePolicy = signaturePolicy == null ? SignaturePolicy.LOG : signaturePolicy;
+	}
+
+	public Executor getPrepareExecutor() {
+		return prepareExecutor;
+	}
+
+	/**
+	 * 設定預先產生條碼、二維碼及圖片的執行緒池，由呼叫端管理及關閉<br>
+	 * 設定後建立 PdfStamper 前先將編碼、解碼及縮放交給執行緒池，PdfStamper 所在的執行緒只放置產生好的物件；<br>
+	 * 批次匯出時並於匯出目前資料時產生下一筆資料的內容。null(預設)時於匯出的執行緒中產生。
+	 * 
+	 * @param prepareExecutor
+	 */
+	public void setPrepareExecutor(Executor prepareExecutor) {
+		this.prepareExecutor = prepareExecutor;
+	}
+
+	/**
+	 * 解析模版路徑檔名，支援 classpath:、web_root:、file: 前綴
+	 * 
+	 * @param template - 模版路徑檔名
+	 * @return 模版實際路徑
+	 */
+	static String resolveTemplate(String template) {
+		if (template.toString().toLowerCase()
+				.startsWith(PdfTemplateConfig.ResourceMode.CLASSPATH.toString().toLowerCase())) {
+			template = template.substring((PdfTemplateConfig.ResourceMode.CLASSPATH.toString() + ":").length(),
+					template.length());
+			return getResourcesPath(template) + template;
+		} else if (template.toString().toLowerCase()
+				.startsWith(PdfTemplateConfig.ResourceMode.WEB_ROOT.toString().toLowerCase())) {
+			template = template.substring((PdfTemplateConfig.ResourceMode.WEB_ROOT.toString() + ":").length(),
+					template.length());
+			return getWebRootPath() + template;
+		} else if (template.toString().toLowerCase()
+				.startsWith(PdfTemplateConfig.ResourceMode.FILE.toString().toLowerCase())) {
+			return template.substring((PdfTemplateConfig.ResourceMode.FILE.toString() + ":").length(),
+					template.length());
+		} else {
+			return template;
+		}
 	}
 
 	/**
@@ -163,693 +247,756 @@ public class PdfTemplateExport {
 	 * @throws Exception
 	 * 
 	 */
-	@SuppressWarnings("unchecked")
 	public ByteArrayOutputStream export(Map<String, Object> textFields, Map<String, Object> barcodeFields,
 			Map<String, Object> qrcodeFields, Map<String, Object> imgFields, Map<String, TableFields> tableFields,
 			Map<String, Object> checkboxFields, Map<String, Object> groupFields) throws Exception {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		export(getCompiledTemplate(), bos, textFields, barcodeFields, qrcodeFields, imgFields, tableFields,
+				checkboxFields, groupFields);
+		return bos;
+	}
 
-		if (textFields == null ||textFields.isEmpty())
-			textFields = new HashMap<String, Object>();
-		if (barcodeFields == null || barcodeFields.isEmpty())
-			barcodeFields = new HashMap<String, Object>();
-		if (qrcodeFields == null || qrcodeFields.isEmpty())
-			qrcodeFields = new HashMap<String, Object>();
-		if (imgFields == null || imgFields.isEmpty())
-			imgFields = new HashMap<String, Object>();
-		if (tableFields == null || tableFields.isEmpty())
-			tableFields = new HashMap<String, TableFields>();
-		if (checkboxFields == null || checkboxFields.isEmpty())
-			checkboxFields = new HashMap<String, Object>();
-		if (groupFields == null || groupFields.isEmpty())
-			groupFields = new HashMap<String, Object>();
-
-		// 讀取模版參數
-		TreeMap<String, Object> cfg = new TreeMap<String, Object>();
-		if (config.readConfig().containsKey("configuration"))
-			cfg = (TreeMap<String, Object>) config.readConfig().get("configuration");
-		if (cfg.containsKey("Template"))
-			setTemplate((String) cfg.get("Template"));
-
-		// 讀取模版
-		PdfReader reader = new PdfReader(this.template);
+	/**
+	 * 依 ExportRequest 匯出，採用 ExportRequest 建立時的已編譯範本
+	 * 
+	 * @param request - 匯出資料
+	 * @return
+	 * @throws Exception
+	 */
+	public ByteArrayOutputStream export(ExportRequest request) throws Exception {
 		ByteArrayOutputStream bos = new ByteArrayOutputStream();
-		PdfStamper ps = new PdfStamper(reader, bos);
+		export(request, bos);
+		return bos;
+	}
 
-		// 使用中文字型
-		// 在PDF檔案內容中要顯示中文，最重要的是字型設定，如果沒有正確設定中文字型，會造成中文無法顯示的問題。
-		// 首先設定基本字型：kaiu.ttf 是作業系統系統提供的標楷體字型，IDENTITY_H 是指編碼(The Unicode encoding with
-		// horizontal writing)，
-		// 及是否要將字型嵌入PDF 檔中。
-		// 再來針對基本字型做變化，例如Font Size、粗體斜體以及顏色等。
+	/**
+	 * 依 ExportRequest 匯出，直接寫入輸出串流，完成後關閉串流
+	 * 
+	 * @param os      - 輸出串流
+	 * @param request - 匯出資料
+	 * @throws Exception
+	 */
+	public void export(OutputStream os, ExportRequest request) throws Exception {
+		export(request, os);
+	}
 
-		AcroFields acroFields = ps.getAcroFields();
+	/**
+	 * 建立 ExportRequest，欄位序號依目前的已編譯範本
+	 * 
+	 * @return
+	 * @throws Exception
+	 */
+	public ExportRequest newRequest() throws Exception {
+		return getCompiledTemplate().newRequest();
+	}
 
-		// 遍歷簽署欄位
-		List<String> names = acroFields.getSignatureNames();
-		for (String name : names) {
-			logger.info("Signature name: " + name, new Object[0]);
-			logger.info("Signature covers whole document: " + acroFields.signatureCoversWholeDocument(name),
-					new Object[0]);
-			PdfPKCS7 pk = acroFields.verifySignature(name);
-			logger.info("Document verifies: " + pk.verify(), new Object[0]);
-		}
+	/**
+	 * 建立批次匯出，可設定平行匯出的執行緒池
+	 * 
+	 * @return
+	 */
+	public PdfBatchExport batch() {
+		return new PdfBatchExport(this);
+	}
+
+	/**
+	 * 合併匯出，所有資料填入範本後依序附加到同一個 PDF，相同的字型及範本背景只寫入一次
+	 * 
+	 * @param records - 資料，至少一筆
+	 * @param os      - 輸出串流，完成後關閉
+	 * @return 匯出筆數
+	 * @throws Exception
+	 * @see PdfBatchExport#exportMerged(Iterator, OutputStream)
+	 */
+	public long exportMerged(Iterator<? extends ExportRecord> records, OutputStream os) throws Exception {
+		return batch().exportMerged(records, os);
+	}
 
-		// 遍歷表單欄位
-		TreeMap<String, Object> TextFieldsCfg = new TreeMap<String, Object>();
-		if (cfg.containsKey("TextFields"))
-			TextFieldsCfg = (TreeMap<String, Object>) cfg.get("TextFields");
+	/**
+	 * 以指定的已編譯範本匯出一筆資料，批次匯出時所有資料共用同一個範本
+	 * 
+	 * @param compiled - 已編譯的範本
+	 * @param record   - 資料
+	 * @return
+	 * @throws Exception
+	 */
+	ByteArrayOutputStream export(CompiledTemplate compiled, ExportRecord record) throws Exception {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		export(compiled, record, bos);
+		return bos;
+	}
+
+	/**
+	 * 以指定的已編譯範本匯出一筆資料，直接寫入輸出串流，完成後關閉串流
+	 * 
+	 * @param compiled - 已編譯的範本
+	 * @param record   - 資料
+	 * @param os       - 輸出串流
+	 * @throws Exception
+	 */
+	void export(CompiledTemplate compiled, ExportRecord record, OutputStream os) throws Exception {
+		export(compiled, record, os, null);
+	}
+
+	/**
+	 * 以指定的已編譯範本匯出一筆資料，採用預先產生的條碼、二維碼及圖片
+	 * 
+	 * @param compiled - 已編譯的範本
+	 * @param record   - 資料
+	 * @param os       - 輸出串流
+	 * @param assets   - 預先產生的內容，null 時依 prepareExecutor 產生
+	 * @throws Exception
+	 */
+	void export(CompiledTemplate compiled, ExportRecord record, OutputStream os, PreparedAssets assets)
+			throws Exception {
+		export(compiled, os, assets, record.getTextFields(), record.getBarcodeFields(), record.getQrcodeFields(),
+				record.getImgFields(), record.getTableFields(), record.getCheckboxFields(), record.getGroupFields());
+	}
 
-		DefaultFontName = StringUtils.isNotEmpty((String) TextFieldsCfg.get("FontName"))
-				? (String) TextFieldsCfg.get("FontName")
-				: DefaultFontName;
+	/**
+	 * 交由 prepareExecutor 產生一筆資料的條碼、二維碼及圖片
+	 * 
+	 * @param compiled - 已編譯的範本
+	 * @param record   - 資料
+	 * @return 未設定 prepareExecutor 或沒有需產生的欄位時為 null
+	 */
+	PreparedAssets prepare(CompiledTemplate compiled, ExportRecord record) {
+		return prepare(compiled, record.getBarcodeFields(), record.getQrcodeFields(), record.getImgFields());
+	}
 
-		DefaultFontSize = StringUtils.isNotEmpty((String) TextFieldsCfg.get("FontSize"))
-				? Float.parseFloat((String) TextFieldsCfg.get("FontSize"))
-				: DefaultFontSize;
+	/**
+	 * 交由 prepareExecutor 產生條碼、二維碼及圖片，依欄位序號保存
+	 */
+	private PreparedAssets prepare(CompiledTemplate compiled, Map<String, Object> barcodeFields,
+			Map<String, Object> qrcodeFields, Map<String, Object> imgFields) {
+		Executor executor = this.prepareExecutor;
+		if (executor == null || (isEmpty(barcodeFields) && isEmpty(qrcodeFields) && isEmpty(imgFields)))
+			return null;
+		TemplateFieldIndex fieldIndex = compiled.getFields();
+		PreparedAssets assets = new PreparedAssets(executor, fieldIndex.size());
+		if (barcodeFields != null) {
+			for (Map.Entry<String, Object> entry : barcodeFields.entrySet())
+				prepare(assets, compiled, ExportRequest.BARCODE, fieldIndex.get(entry.getKey()), entry.getValue());
+		}
+		if (qrcodeFields != null) {
+			for (Map.Entry<String, Object> entry : qrcodeFields.entrySet())
+				prepare(assets, compiled, ExportRequest.QRCODE, fieldIndex.get(entry.getKey()), entry.getValue());
+		}
+		if (imgFields != null) {
+			for (Map.Entry<String, Object> entry : imgFields.entrySet())
+				prepare(assets, compiled, ExportRequest.IMAGE, fieldIndex.get(entry.getKey()), entry.getValue());
+		}
+		return assets;
+	}
 
-		DefaultFontColor = StringUtils.isNotEmpty((String) TextFieldsCfg.get("FontColor"))
-				? getColorValues((String) TextFieldsCfg.get("FontColor"))
-				: DefaultFontColor;
+	/**
+	 * 交由 prepareExecutor 產生 ExportRequest 的條碼、二維碼及圖片
+	 */
+	private PreparedAssets prepare(ExportRequest request) {
+		Executor executor = this.prepareExecutor;
+		if (executor == null)
+			return null;
+		CompiledTemplate compiled = request.getCompiledTemplate();
+		TemplateFieldIndex fieldIndex = compiled.getFields();
+		PreparedAssets assets = null;
+		int size = request.size();
+		for (int i = 0; i < size; i++) {
+			int slot = request.slotAt(i);
+			int kind = request.kindOf(slot);
+			if (kind != ExportRequest.BARCODE && kind != ExportRequest.QRCODE && kind != ExportRequest.IMAGE)
+				continue;
+			if (assets == null)
+				assets = new PreparedAssets(executor, fieldIndex.size());
+			prepare(assets, compiled, kind, fieldIndex.get(slot), request.valueOf(slot));
+		}
+		return assets;
+	}
 
-		DefaultFontStyle = StringUtils.isNotEmpty((String) TextFieldsCfg.get("FontStyle"))
-				? getFontStyleValues((String) TextFieldsCfg.get("FontStyle"))
-				: DefaultFontStyle;
+	private void prepare(PreparedAssets assets, final CompiledTemplate compiled, int kind,
+			final TemplateFieldIndex.FieldInfo field, final Object value) {
+		if (field == null || value == null)
+			return;
+		switch (kind) {
+		case ExportRequest.BARCODE:
+			assets.submit(kind, field.getIndex(), () -> createBarcode(compiled, field, value.toString()));
+			break;
+		case ExportRequest.QRCODE:
+			assets.submit(kind, field.getIndex(), () -> renderQrcode(compiled, field, value.toString()));
+			break;
+		case ExportRequest.IMAGE:
+			// 不支援的型態於放置時拒絕，與沒有 prepareExecutor 時相同
+			assets.submit(kind, field.getIndex(), () -> loadImage(field, value));
+			break;
+		}
+	}
 
-		for (Map.Entry<String, Object> entry : textFields.entrySet()) {
-			String key = (String) entry.getKey();
-			String value = entry.getValue() == null ? "" : String.valueOf(entry.getValue());
+	private static boolean isEmpty(Map<String, ?> fields) {
+		return fields == null || fields.isEmpty();
+	}
 
-			String keycfg = "";
-			for (Map.Entry<String, Object> entrycfg : TextFieldsCfg.entrySet()) {
-				keycfg = (String) entrycfg.getKey();
+	/**
+	 * 匯出時 PdfStamper 直接寫入輸出串流，不先產生完整的 PDF 再複製，PdfStamper 關閉時一併關閉輸出串流
+	 */
+	private void export(CompiledTemplate compiledTemplate, OutputStream os, Map<String, Object> textFields,
+			Map<String, Object> barcodeFields, Map<String, Object> qrcodeFields, Map<String, Object> imgFields,
+			Map<String, TableFields> tableFields, Map<String, Object> checkboxFields, Map<String, Object> groupFields)
+			throws Exception {
+		export(compiledTemplate, os, null, textFields, barcodeFields, qrcodeFields, imgFields, tableFields,
+				checkboxFields, groupFields);
+	}
 
-				String keyArray[] = keycfg.split(",");
-				if (Arrays.asList(keyArray).contains(key))
-					break;
-				else
-					keycfg = "";
+	/**
+	 * 採用預先產生的條碼、二維碼及圖片匯出，assets 為 null 時依 prepareExecutor 產生
+	 */
+	private void export(CompiledTemplate compiledTemplate, OutputStream os, PreparedAssets assets,
+			Map<String, Object> textFields, Map<String, Object> barcodeFields, Map<String, Object> qrcodeFields,
+			Map<String, Object> imgFields, Map<String, TableFields> tableFields, Map<String, Object> checkboxFields,
+			Map<String, Object> groupFields) throws Exception {
+
+		// 未傳入的欄位採用共用的空集合，不另外建立
+		textFields = textFields == null ? Collections.<String, Object>emptyMap() : textFields;
+		barcodeFields = barcodeFields == null ? Collections.<String, Object>emptyMap() : barcodeFields;
+		qrcodeFields = qrcodeFields == null ? Collections.<String, Object>emptyMap() : qrcodeFields;
+		imgFields = imgFields == null ? Collections.<String, Object>emptyMap() : imgFields;
+		tableFields = tableFields == null ? Collections.<String, TableFields>emptyMap() : tableFields;
+		checkboxFields = checkboxFields == null ? Collections.<String, Object>emptyMap() : checkboxFields;
+		groupFields = groupFields == null ? Collections.<String, Object>emptyMap() : groupFields;
+
+		TemplateFieldIndex fieldIndex = compiledTemplate.getFields();
+		try {
+			if (rejectUnknownFields) {
+				// 建立 PdfStamper 前先檢查，範本中沒有的欄位直接拒絕
+				checkFields(fieldIndex, textFields, barcodeFields, qrcodeFields, imgFields, tableFields,
+						checkboxFields, groupFields);
+			}
+			// 條碼、二維碼及圖片先交給執行緒池產生，與讀取範本同時進行
+			if (assets == null)
+				assets = prepare(compiledTemplate, barcodeFields, qrcodeFields, imgFields);
+			// 讀取模版參數，本次匯出的狀態都保存在 ctx，不修改共用的欄位
+			ExportContext ctx = open(compiledTemplate, os);
+			ctx.assets = assets;
+
+			// 遍歷表單欄位
+			for (Map.Entry<String, Object> entry : textFields.entrySet()) {
+				Object value = entry.getValue();
+				fillText(ctx, entry.getKey(), value == null ? "" : String.valueOf(value));
 			}
 
-			TreeMap<String, Object> TextCfg = new TreeMap<String, Object>();
-			if (TextFieldsCfg.containsKey(keycfg)) {
-				// 設定檔案有指定字體
-				TextCfg = (TreeMap<String, Object>) TextFieldsCfg.get(keycfg);
-				String textFontName = TextCfg.containsKey("FontName")
-						? StringUtils.isNotEmpty((String) TextCfg.get("FontName")) ? (String) TextCfg.get("FontName")
-								: DefaultFontName
-						: DefaultFontName;
-
-				if (textFontName.split(",").length > 1) {
-					// 有多個字體處理
-					for (String subtextFontName : textFontName.split(",")) {
-						BaseFont bf = BaseFont.createFont(getFontPath(subtextFontName), BaseFont.IDENTITY_H,
-								BaseFont.NOT_EMBEDDED);
-						acroFields.setFieldProperty(key, "textsize", TextCfg.get("FontSize") == null ? DefaultFontSize
-								: Float.parseFloat((String) TextCfg.get("FontSize")), null);
-						acroFields.setFieldProperty(key, "textcolor", getColorValues((String) TextCfg.get("FontColor")),
-								null);
-						acroFields.addSubstitutionFont(bf);
-					}
-				} else {
-					// 只有一個字體
-					BaseFont bf = BaseFont.createFont(getFontPath(textFontName), BaseFont.IDENTITY_H,
-							BaseFont.NOT_EMBEDDED);
-					// ArrayList<BaseFont> fontList = new ArrayList<BaseFont>();
-
-					acroFields.setFieldProperty(key, "textsize", TextCfg.get("FontSize") == null ? DefaultFontSize
-							: Float.parseFloat((String) TextCfg.get("FontSize")), null);
-					acroFields.setFieldProperty(key, "textcolor", getColorValues((String) TextCfg.get("FontColor")),
-							null);
-
-					acroFields.addSubstitutionFont(bf);
-				}
+			// 遍歷條碼欄位
+			for (Map.Entry<String, Object> entry : barcodeFields.entrySet()) {
+				TemplateFieldIndex.FieldInfo field = fieldIndex.get(entry.getKey());
+				if (entry.getValue() != null && field != null)
+					drawBarcode(ctx, field, entry.getValue().toString());
+			}
 
-			} else {
-				// 設定檔案沒有指定字體，採用預設字體
-				if (DefaultFontName.split(",").length > 1) {
-					// 多個字體處理
-					for (String subtextFontName : DefaultFontName.split(",")) {
-						BaseFont bf = BaseFont.createFont(getFontPath(subtextFontName), BaseFont.IDENTITY_H,
-								BaseFont.NOT_EMBEDDED);
-						acroFields.setFieldProperty(key, "textsize", TextCfg.get("FontSize") == null ? DefaultFontSize
-								: Float.parseFloat((String) TextCfg.get("FontSize")), null);
-						acroFields.setFieldProperty(key, "textcolor", getColorValues((String) TextCfg.get("FontColor")),
-								null);
-						acroFields.addSubstitutionFont(bf);
-					}
-				} else {
-					// 只有一個字體
-					BaseFont bf = BaseFont.createFont(getFontPath(DefaultFontName), BaseFont.IDENTITY_H,
-							BaseFont.NOT_EMBEDDED);
-					ArrayList<BaseFont> fontList = new ArrayList<BaseFont>();
+			// 遍歷二維碼欄位
+			for (Map.Entry<String, Object> entry : qrcodeFields.entrySet()) {
+				TemplateFieldIndex.FieldInfo field = fieldIndex.get(entry.getKey());
+				if (entry.getValue() != null && field != null)
+					drawQrcode(ctx, field, entry.getValue().toString());
+			}
 
-					acroFields.setFieldProperty(key, "textsize", DefaultFontSize, null);
-					acroFields.setFieldProperty(key, "textcolor", DefaultFontColor, null);
+			// 圖片類的內容處理
+			for (Map.Entry<String, Object> entry : imgFields.entrySet()) {
+				TemplateFieldIndex.FieldInfo field = fieldIndex.get(entry.getKey());
+				if (entry.getValue() != null && field != null)
+					drawImage(ctx, field, entry.getValue());
+			}
 
-					fontList.add(bf);
-					acroFields.setSubstitutionFonts(fontList);
-				}
+			// Checkbox 類的內容處理
+			for (Map.Entry<String, Object> entry : checkboxFields.entrySet()) {
+				if (entry.getValue() != null && fieldIndex.contains(entry.getKey()))
+					ctx.acroFields.setField(entry.getKey(), "yes");
 			}
 
-			for (int i = 0; i < value.length(); i++) {
-				char c = value.charAt(i);
-				if (Character.UnicodeBlock.of(c) == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS_EXTENSION_B) {
-					logger.debug(key + ":" + value);
-				}
+			// Group 類的內容處理
+			for (Map.Entry<String, Object> entry : groupFields.entrySet()) {
+				if (entry.getValue() != null && fieldIndex.contains(entry.getKey()))
+					ctx.acroFields.setField(entry.getKey(), (String) entry.getValue());
 			}
-			acroFields.setField(key, value);
-		}
-
-		// 遍歷條碼欄位
-		TreeMap<String, Object> BarcodeFieldsCfg = new TreeMap<String, Object>();
-		if (cfg.containsKey("BarcodeFields"))
-			BarcodeFieldsCfg = (TreeMap<String, Object>) cfg.get("BarcodeFields");
-
-		for (Map.Entry<String, Object> entry : barcodeFields.entrySet()) {
-			String key = (String) entry.getKey();
-			Object value = entry.getValue();
-			TreeMap<String, Object> BarcodeCfg = new TreeMap<String, Object>();
-			if (BarcodeFieldsCfg.containsKey(key) && BarcodeFieldsCfg.get(key) instanceof Map)
-				BarcodeCfg = (TreeMap<String, Object>) BarcodeFieldsCfg.get(key);
-
-			// 獲取屬性的型別
-			if ((value != null) && (acroFields.getField(key) != null)) {
-				// 獲取位置(左上右下)
-				// 獲取 AcroFields 對象
-				AcroFields fields = reader.getAcroFields();
-				// 獲取指定字段的位置 (使用字段名稱)
-				PdfDictionary fieldDict = fields.getFieldItem(key).getWidget(0);
-				// 獲取欄位的 Rect 矩形
-				PdfArray rectArray = fieldDict.getAsArray(PdfName.RECT);
-				float left = rectArray.getAsNumber(0).floatValue();
-				float bottom = rectArray.getAsNumber(1).floatValue();
-				float right = rectArray.getAsNumber(2).floatValue();
-				float top = rectArray.getAsNumber(3).floatValue();
-
-				PdfRectangle rect = new PdfRectangle(left, bottom, right, top);
-				// 欄位的邊界信息
-				logger.debug("Field: " + key);
-				logger.debug("Position: (" + rect.left() + ", " + rect.bottom() + ") - (" + rect.right() + ", "
-						+ rect.top() + ")");
-
-				// 繪製條碼
-				Barcode barcode;
-				if ("Barcode39".equals((String) BarcodeCfg.get("BarcodeFormat")))
-					barcode = new Barcode39();
-				else if ("BarcodePostnet".equals((String) BarcodeCfg.get("BarcodeFormat")))
-					barcode = new BarcodePostnet();
-				else if ("BarcodeCodabar".equals((String) BarcodeCfg.get("BarcodeFormat")))
-					barcode = new BarcodePostnet();
-				else if ("BarcodeInter25".equals((String) BarcodeCfg.get("BarcodeFormat")))
-					barcode = new BarcodePostnet();
-				else
-					barcode = new Barcode128();
-
-				// barcode.setCodeType(codeType);
-				// 字號
-				barcode.setSize(BarcodeCfg.get("TextFontSize") == null ? 8F
-						: Float.parseFloat((String) BarcodeCfg.get("TextFontSize")));
-				// 條碼高度
-				barcode.setBarHeight(BarcodeCfg.get("BarcodeHeight") == null ? (rect.top() - rect.bottom()) / 2
-						: Float.parseFloat((String) BarcodeCfg.get("BarcodeHeight")));
-				// 條碼與數字間距
-				barcode.setBaseline(BarcodeCfg.get("Baseline") == null ? 10F
-						: Float.parseFloat((String) BarcodeCfg.get("Baseline")));
-				// 文字風格
-				BaseFont barcodeTextFont = FontFactory.getFont(getFontPath(this.DefaultFontName),
-						BarcodeCfg.get("TextFontSize") == null ? 8F
-								: Float.parseFloat((String) BarcodeCfg.get("TextFontSize")),
-						getFontStyleValues("BOLDITALIC")).getBaseFont();
-				barcode.setFont(barcodeTextFont);
-
-				// 文字對齊
-				barcode.setTextAlignment(getVerticalAlignValues((String) BarcodeCfg.get("TextAlignment")));
-				// 條碼值
-				barcode.setCode(value.toString());
-				barcode.setStartStopText("true".equals((String) BarcodeCfg.get("StartStopText")));
-				barcode.setExtended(true);
-				if ("true".equals((String) BarcodeCfg.get("AltText")))
-					barcode.setAltText(value.toString());
-				else
-					barcode.setAltText("");
-				// 繪製在第一頁
-				PdfContentByte cb = ps.getOverContent(1);
-				// 生成條碼圖片
-				Image image128 = barcode.createImageWithBarcode(cb, getColorValues((String) BarcodeCfg.get("BarColor")),
-						getColorValues((String) BarcodeCfg.get("TextColor")));
-				// 左邊距(居中處理)
-				float marginLeft = (rect.right() - rect.left() - image128.getWidth()) / 2.0F;
-				// 條碼位置
-				image128.setAbsolutePosition(rect.left() + marginLeft / 2.0F, rect.bottom());
-				image128.scaleAbsoluteWidth(rect.right() - rect.left() - marginLeft);
-				// 加入條碼
-				cb.addImage(image128);
+
+			// 遍歷表格欄位
+			for (Map.Entry<String, TableFields> entry : tableFields.entrySet()) {
+				TemplateFieldIndex.FieldInfo field = fieldIndex.get(entry.getKey());
+				if (field != null)
+					drawTable(ctx, field, entry.getValue());
 			}
+			close(ctx);
+		} catch (Exception | Error e) {
+			if (assets != null)
+				assets.cancel();
+			throw e;
 		}
+	}
 
-		// 遍歷二維碼欄位
-		TreeMap<String, Object> QrcodeFieldsCfg = new TreeMap<String, Object>();
-		if (cfg.containsKey("QrcodeFields"))
-			QrcodeFieldsCfg = (TreeMap<String, Object>) cfg.get("QrcodeFields");
-		for (Map.Entry<String, Object> entry : qrcodeFields.entrySet()) {
-			String key = (String) entry.getKey();
-			Object value = entry.getValue();
-			TreeMap<String, Object> QrcodeCfg = new TreeMap<String, Object>();
-			if (QrcodeFieldsCfg.containsKey(key) && QrcodeFieldsCfg.get(key) instanceof Map)
-				QrcodeCfg = (TreeMap<String, Object>) QrcodeFieldsCfg.get(key);
-
-			if ((value != null) && (acroFields.getField(key) != null)) {
-				// 獲取 AcroFields 對象
-				AcroFields fields = reader.getAcroFields();
-				// 獲取指定字段的位置 (使用字段名稱)
-				PdfDictionary fieldDict = fields.getFieldItem(key).getWidget(0);
-				// 獲取欄位的 Rect 矩形
-				PdfArray rectArray = fieldDict.getAsArray(PdfName.RECT);
-				float left = rectArray.getAsNumber(0).floatValue();
-				float bottom = rectArray.getAsNumber(1).floatValue();
-				float right = rectArray.getAsNumber(2).floatValue();
-				float top = rectArray.getAsNumber(3).floatValue();
-
-				PdfRectangle rect = new PdfRectangle(left, bottom, right, top);
-				// 欄位的邊界信息
-				logger.debug("Field: " + key);
-				logger.debug("Position: (" + rect.left() + ", " + rect.bottom() + ") - (" + rect.right() + ", "
-						+ rect.top() + ")");
-
-				float hight = rect.height();
-				float width = rect.width();
-
-				PdfContentByte cb = ps.getUnderContent(1);
-
-				qrCodeHeight = (int) hight;
-				qrCodeWidth = (int) width;
-				qrCodeErrorCorrection = getErrorCorrectionLevel((String) QrcodeCfg.get("ErrorCorrectionLevel"));
-
-				BitMatrix bitMatrix = encodeBarcode(value.toString(), BarcodeFormat.QR_CODE, qrCodeHeight, qrCodeWidth);
-				if (QrcodeCfg.get("RectangleMargin") != null
-						&& Integer.parseInt((String) QrcodeCfg.get("RectangleMargin")) == 0)
-					bitMatrix = deleteWhite(bitMatrix);
-
-				BufferedImage bufferImg = bitMatrixtoImage(bitMatrix, qrCodeForeColor, qrCodeBackColor);
-				ByteArrayOutputStream baos = new ByteArrayOutputStream();
-				ImageIO.write(bufferImg, "png", baos);
-				baos.flush();
-				byte[] imageInByte = baos.toByteArray();
-				baos.close();
-				Image image = Image.getInstance(imageInByte);
-				if (QrcodeCfg.get("RectangleMargin") != null
-						&& Integer.parseInt((String) QrcodeCfg.get("RectangleMargin")) == 0)
-					image.scalePercent(hight / bufferImg.getHeight() * 100.0F);
-
-				image.setAbsolutePosition(rect.left(), rect.bottom());
-
-				cb.addImage(image);
+	/**
+	 * 依 ExportRequest 匯出，欄位值依範本欄位索引取得，不需查詢 Map<br>
+	 * 各類欄位的處理順序與 Map 參數的匯出相同
+	 */
+	private void export(ExportRequest request, OutputStream os) throws Exception {
+		PreparedAssets assets = prepare(request);
+		try {
+			ExportContext ctx = open(request.getCompiledTemplate(), os);
+			ctx.assets = assets;
+			TemplateFieldIndex fieldIndex = ctx.fields;
+			int size = request.size();
+			for (int kind = ExportRequest.TEXT; kind <= ExportRequest.TABLE; kind++) {
+				for (int i = 0; i < size; i++) {
+					int slot = request.slotAt(i);
+					if (request.kindOf(slot) != kind)
+						continue;
+					TemplateFieldIndex.FieldInfo field = fieldIndex.get(slot);
+					Object value = request.valueOf(slot);
+					switch (kind) {
+					case ExportRequest.TEXT:
+						fillText(ctx, field.getName(), (String) value);
+						break;
+					case ExportRequest.BARCODE:
+						drawBarcode(ctx, field, (String) value);
+						break;
+					case ExportRequest.QRCODE:
+						drawQrcode(ctx, field, (String) value);
+						break;
+					case ExportRequest.IMAGE:
+						drawImage(ctx, field, value);
+						break;
+					case ExportRequest.CHECKBOX:
+						ctx.acroFields.setField(field.getName(), "yes");
+						break;
+					case ExportRequest.GROUP:
+						ctx.acroFields.setField(field.getName(), (String) value);
+						break;
+					case ExportRequest.TABLE:
+						drawTable(ctx, field, (TableFields) value);
+						break;
+					}
+				}
 			}
+			close(ctx);
+		} catch (Exception | Error e) {
+			if (assets != null)
+				assets.cancel();
+			throw e;
 		}
+	}
 
-		// 圖片類的內容處理
-		TreeMap<String, Object> ImageFieldsCfg = new TreeMap<String, Object>();
-		if (cfg.containsKey("ImageFields"))
-			ImageFieldsCfg = (TreeMap<String, Object>) cfg.get("ImageFields");
-
-		for (Map.Entry<String, Object> entry : imgFields.entrySet()) {
-			String key = (String) entry.getKey();
-			Object value = entry.getValue();
-			TreeMap<String, Object> ImageCfg = new TreeMap<>();
-			if (ImageFieldsCfg.containsKey(key))
-				ImageCfg = (TreeMap<String, Object>) ImageFieldsCfg.get(key);
-
-			if ((value != null) && (acroFields.getField(key) != null)) {
-				// 獲取 AcroFields 對象
-				AcroFields fields = reader.getAcroFields();
-				// 獲取指定字段的位置 (使用字段名稱)
-				PdfDictionary fieldDict = fields.getFieldItem(key).getWidget(0);
-				// 獲取欄位的 Rect 矩形
-				PdfArray rectArray = fieldDict.getAsArray(PdfName.RECT);
-				float left = rectArray.getAsNumber(0).floatValue();
-				float bottom = rectArray.getAsNumber(1).floatValue();
-				float right = rectArray.getAsNumber(2).floatValue();
-				float top = rectArray.getAsNumber(3).floatValue();
-
-				float[] fieldPositions = fields.getFieldPositions(key);
-				int pageNo = (int) fieldPositions[0];
-
-				PdfRectangle signRect = new PdfRectangle(left, bottom, right, top);
-				PdfNumber pageNumber = fieldDict.getAsNumber(PdfName.PAGE);
-
-				float x = signRect.left();
-				float y = signRect.bottom();
-
-				Image image = null;
-				if ((value instanceof String)) {
-					image = Image.getInstance(value.toString());
-				} else if ((value instanceof byte[])) {
-					image = Image.getInstance((byte[]) value);
-				}
-				PdfContentByte under = ps.getOverContent(pageNo);
+	/**
+	 * 開始匯出，由快取的範本內容建立 PdfStamper
+	 * 
+	 * @param compiled - 已編譯的範本
+	 * @param os       - 輸出串流
+	 * @return 本次匯出的狀態
+	 * @throws Exception
+	 */
+	private ExportContext open(CompiledTemplate compiled, OutputStream os) throws Exception {
+		ExportContext ctx = new ExportContext(compiled);
 
-				image.scaleToFit(signRect.width(), signRect.height());
+		// 讀取模版，由編譯時讀取的範本內容建立，範本檔案之後被修改也採用同一版本
+		byte[] pdf = compiled.getPdf();
+		if (pdf == null)
+			throw new IllegalStateException("Template not set!");
+		checkSignatures(compiled);
+		ctx.reader = new PdfReader(pdf);
+		ctx.stamper = new PdfStamper(ctx.reader, os);
 
-				image.setAbsolutePosition(x, y);
-				under.addImage(image);
-			}
+		// 使用中文字型
+		// 在PDF檔案內容中要顯示中文，最重要的是字型設定，如果沒有正確設定中文字型，會造成中文無法顯示的問題。
+		// 首先設定基本字型：kaiu.ttf 是作業系統系統提供的標楷體字型，IDENTITY_H 是指編碼(The Unicode encoding with
+		// horizontal writing)，
+		// 及是否要將字型嵌入PDF 檔中。
+		// 再來針對基本字型做變化，例如Font Size、粗體斜體以及顏色等。
+
+		ctx.acroFields = ctx.stamper.getAcroFields();
+		return ctx;
+	}
+
+	/**
+	 * 依簽章處理方式檢查範本簽章，同一版本的範本只驗證一次
+	 * 
+	 * @param compiled - 已編譯的範本
+	 * @throws IOException
+	 */
+	private void checkSignatures(CompiledTemplate compiled) throws IOException {
+		SignaturePolicy policy = this.signaturePolicy;
+		if (policy == SignaturePolicy.IGNORE)
+			return;
+		TemplateSignatures signatures = compiled.getSignatures();
+		if (policy == SignaturePolicy.REJECT && !signatures.isValid())
+			throw new IllegalStateException("Template [" + compiled.getTemplate() + "] signature "
+					+ signatures.getFirstInvalid() + " not valid!");
+	}
+
+	/**
+	 * 結束匯出，平面化表單並寫出
+	 */
+	private static void close(ExportContext ctx) throws Exception {
+		ctx.stamper.setFormFlattening(true);
+		ctx.stamper.close();
+		ctx.reader.close();
+	}
+
+	/**
+	 * 填入表單欄位
+	 */
+	private void fillText(ExportContext ctx, String key, String value) throws Exception {
+		PdfTemplateModel.FontSetting TextCfg = ctx.model.getTextFields().getField(key);
+		if (TextCfg == null) {
+			// 設定檔案沒有指定字體，採用預設字體
+			TextCfg = ctx.defaultFont;
+		}
+		AcroFields acroFields = ctx.acroFields;
+		acroFields.setFieldProperty(key, "textsize", TextCfg.getFontSize(), null);
+		acroFields.setFieldProperty(key, "textcolor", TextCfg.getFontColor(), null);
+
+		// 依字元涵蓋範圍選擇字型，主要字型有所有字元時只用主要字型，
+		// 否則罕用字(ex: CJK 擴展 B)改用有該字的替代字型
+		String fontName = TextCfg.getFontName();
+		List<BaseFont> fonts = ctx.compiled.getFieldFonts(fontName);
+		ArrayList<BaseFont> primary = ctx.compiled.getPrimaryFonts(fontName);
+		ArrayList<BaseFont> selected = GlyphCoverage.select(fonts, primary, value);
+		// 與目前設定的替代字型相同時不再設定
+		if (!selected.equals(ctx.substitutionFonts)) {
+			acroFields.setSubstitutionFonts(selected);
+			ctx.substitutionFonts = selected;
 		}
+		if (selected != primary) {
+			String uncovered = GlyphCoverage.uncovered(fonts, value);
+			if (uncovered != null)
+				logger.warn("欄位[" + key + "]的字元[" + uncovered + "]在所有字型中都沒有");
+		}
+		acroFields.setField(key, value);
+	}
 
-		// Checkbox 類的內容處理
-		for (Map.Entry<String, Object> entry : checkboxFields.entrySet()) {
-			String key = (String) entry.getKey();
-			Object value = entry.getValue();
-			if ((value != null) && (acroFields.getField(key) != null)) {
-				acroFields.setField(key, "yes");
-			}
+	/**
+	 * 繪製條碼
+	 */
+	private void drawBarcode(ExportContext ctx, TemplateFieldIndex.FieldInfo field, String value) throws Exception {
+		Barcode barcode = ctx.assets == null ? null
+				: (Barcode) ctx.assets.get(ExportRequest.BARCODE, field.getIndex());
+		if (barcode == null)
+			barcode = createBarcode(ctx.compiled, field, value);
+		PdfTemplateModel.BarcodeFieldConfig BarcodeCfg = ctx.model.getBarcodeField(field.getName());
+		PdfRectangle rect = field.getRectangle();
+		// 繪製在欄位所在頁，條碼圖片屬於文件，只能在匯出的執行緒中產生
+		PdfContentByte cb = ctx.stamper.getOverContent(field.getPage());
+		// 生成條碼圖片
+		Image image128 = barcode.createImageWithBarcode(cb, BarcodeCfg.getBarColor(), BarcodeCfg.getTextColor());
+		// 左邊距(居中處理)
+		float marginLeft = (rect.right() - rect.left() - image128.getWidth()) / 2.0F;
+		// 條碼位置
+		image128.setAbsolutePosition(rect.left() + marginLeft / 2.0F, rect.bottom());
+		image128.scaleAbsoluteWidth(rect.right() - rect.left() - marginLeft);
+		// 加入條碼
+		cb.addImage(image128);
+	}
+
+	/**
+	 * 依欄位設定建立條碼，不需 PdfStamper，可在其他執行緒中建立
+	 */
+	private Barcode createBarcode(CompiledTemplate compiled, TemplateFieldIndex.FieldInfo field, String value)
+			throws Exception {
+		String key = field.getName();
+		PdfTemplateModel model = compiled.getModel();
+		PdfTemplateModel.BarcodeFieldConfig BarcodeCfg = model.getBarcodeField(key);
+		// 由欄位索引取位置(左下右上)及頁碼
+		PdfRectangle rect = field.getRectangle();
+		// 欄位的邊界信息
+		logger.debug("Field: " + key);
+		logger.debug("Position: (" + rect.left() + ", " + rect.bottom() + ") - (" + rect.right() + ", " + rect.top()
+				+ ")");
+
+		// 繪製條碼
+		Barcode barcode;
+		if ("Barcode39".equals(BarcodeCfg.getBarcodeFormat()))
+			barcode = new Barcode39();
+		else if ("BarcodePostnet".equals(BarcodeCfg.getBarcodeFormat()))
+			barcode = new BarcodePostnet();
+		else if ("BarcodeCodabar".equals(BarcodeCfg.getBarcodeFormat()))
+			barcode = new BarcodePostnet();
+		else if ("BarcodeInter25".equals(BarcodeCfg.getBarcodeFormat()))
+			barcode = new BarcodePostnet();
+		else
+			barcode = new Barcode128();
+
+		// barcode.setCodeType(codeType);
+		// 字號
+		barcode.setSize(BarcodeCfg.getTextFontSize());
+		// 條碼高度
+		barcode.setBarHeight(BarcodeCfg.getBarcodeHeight() == null ? (rect.top() - rect.bottom()) / 2
+				: BarcodeCfg.getBarcodeHeight());
+		// 條碼與數字間距
+		barcode.setBaseline(BarcodeCfg.getBaseline());
+		// 文字風格
+		BaseFont barcodeTextFont = BaseFontCache.getDefault().get(
+				getFontPath(model.getTextFields().getDefaultFont().getFontName()), BaseFont.WINANSI,
+				BaseFont.NOT_EMBEDDED);
+		barcode.setFont(barcodeTextFont);
+
+		// 文字對齊
+		barcode.setTextAlignment(BarcodeCfg.getTextAlignment());
+		// 條碼值
+		barcode.setCode(value);
+		barcode.setStartStopText(BarcodeCfg.isStartStopText());
+		barcode.setExtended(true);
+		if (BarcodeCfg.isAltText())
+			barcode.setAltText(value);
+		else
+			barcode.setAltText("");
+		return barcode;
+	}
+
+	/**
+	 * 繪製二維碼
+	 */
+	private void drawQrcode(ExportContext ctx, TemplateFieldIndex.FieldInfo field, String value) throws Exception {
+		Object rendered = ctx.assets == null ? null : ctx.assets.get(ExportRequest.QRCODE, field.getIndex());
+		if (rendered == null)
+			rendered = renderQrcode(ctx.compiled, field, value);
+		PdfTemplateModel.QrcodeFieldConfig QrcodeCfg = ctx.model.getQrcodeField(field.getName());
+		PdfRectangle rect = field.getRectangle();
+		float hight = rect.height();
+		float width = rect.width();
+
+		PdfContentByte cb = ctx.stamper.getUnderContent(field.getPage());
+
+		boolean noMargin = QrcodeCfg.getRectangleMargin() != null && QrcodeCfg.getRectangleMargin() == 0;
+		if (rendered instanceof BitMatrix) {
+			drawVector(cb, rect, noMargin, (BitMatrix) rendered);
+			return;
+		}
+		Image image = (Image) rendered;
+		// 去除白邊或超出欄位(ex: PDF417 最小尺寸大於欄位)時等比例縮放至欄位內
+		if (noMargin || image.getWidth() > width || image.getHeight() > hight)
+			image.scalePercent(Math.min(width / image.getWidth(), hight / image.getHeight()) * 100.0F);
+
+		image.setAbsolutePosition(rect.left(), rect.bottom());
+
+		if (image.isMask()) {
+			// 透明背景的圖片為遮罩，以前景色繪製
+			cb.saveState();
+			cb.setColorFill(new Color(qrCodeForeColor, true));
+			cb.addImage(image);
+			cb.restoreState();
+		} else {
+			cb.addImage(image);
 		}
+	}
 
-		// Group 類的內容處理
-		for (Map.Entry<String, Object> entry : groupFields.entrySet()) {
-			String key = (String) entry.getKey();
-			Object value = entry.getValue();
-			if ((value != null) && (acroFields.getField(key) != null)) {
-				acroFields.setField(key, (String) value);
-			}
+	/**
+	 * 依欄位設定將二維碼編碼，不需 PdfStamper，可在其他執行緒中產生
+	 * 
+	 * @return 向量繪製時為 BitMatrix，否則為 Image
+	 */
+	private Object renderQrcode(CompiledTemplate compiled, TemplateFieldIndex.FieldInfo field, final String value)
+			throws Exception {
+		String key = field.getName();
+		PdfTemplateModel.QrcodeFieldConfig QrcodeCfg = compiled.getModel().getQrcodeField(key);
+		// 由欄位索引取位置(左下右上)及頁碼
+		PdfRectangle rect = field.getRectangle();
+		// 欄位的邊界信息
+		logger.debug("Field: " + key);
+		logger.debug("Position: (" + rect.left() + ", " + rect.bottom() + ") - (" + rect.right() + ", " + rect.top()
+				+ ")");
+
+		float hight = rect.height();
+		float width = rect.width();
+
+		final boolean noMargin = QrcodeCfg.getRectangleMargin() != null && QrcodeCfg.getRectangleMargin() == 0;
+		final ErrorCorrectionLevel errorCorrection = QrcodeCfg.getErrorCorrectionLevel();
+		final BarcodeFormat format = QrcodeCfg.getFormat();
+		if (QrcodeCfg.isVector()) {
+			// 每個模組一點編碼，放置時再依欄位大小縮放；PDF417 只傳入欄位方向，直向欄位時由 zxing 旋轉
+			final int encodeHeight = format == BarcodeFormat.PDF_417 && hight > width ? 1 : 0;
+			return BarcodeCache.getDefault().getMatrix(new BarcodeCache.Key(value, format, 0, encodeHeight,
+					errorCorrection, qrCodeForeColor, qrCodeBackColor, noMargin, false), () -> {
+						BitMatrix bitMatrix = encodeBarcode(value, format, encodeHeight, 0, errorCorrection);
+						return noMargin ? deleteWhite(bitMatrix) : bitMatrix;
+					});
 		}
+		final int qrCodeHeight = (int) hight;
+		final int qrCodeWidth = (int) width;
+		return BarcodeCache.getDefault().getImage(new BarcodeCache.Key(value, format, qrCodeWidth,
+				qrCodeHeight, errorCorrection, qrCodeForeColor, qrCodeBackColor, noMargin, true), () -> {
+					BitMatrix bitMatrix = encodeBarcode(value, format, qrCodeHeight, qrCodeWidth, errorCorrection);
+					if (noMargin)
+						bitMatrix = deleteWhite(bitMatrix);
+					return BitMatrixRenderer.createImage(bitMatrix, new Color(qrCodeForeColor, true),
+							qrCodeBackColor == null ? null : new Color(qrCodeBackColor, true));
+				});
+	}
 
-		// 遍歷表格欄位
-		TreeMap<String, Object> TableFieldsCfg = new TreeMap<String, Object>();
-		if (cfg.containsKey("TableFields"))
-			TableFieldsCfg = (TreeMap<String, Object>) cfg.get("TableFields");
-
-		for (Map.Entry<String, TableFields> entry : tableFields.entrySet()) {
-
-			String key = (String) entry.getKey();
-			TableFields tableDto = (TableFields) entry.getValue();
-			TreeMap<String, Object> TableCfg = new TreeMap<String, Object>();
-			if (TableFieldsCfg.containsKey(key)) {
-				TableCfg = (TreeMap<String, Object>) TableFieldsCfg.get(key);
-
-				DefaultFontName = StringUtils.isNotEmpty((String) TableCfg.get("FontName"))
-						? (String) TableCfg.get("FontName")
-						: DefaultFontName;
-				DefaultFontSize = StringUtils.isNotEmpty((String) TableCfg.get("FontSize"))
-						? Float.parseFloat((String) TableCfg.get("FontSize"))
-						: DefaultFontSize;
-				DefaultFontColor = StringUtils.isNotEmpty((String) TableCfg.get("FontColor"))
-						? getColorValues((String) TableCfg.get("FontColor"))
-						: DefaultFontColor;
-				DefaultFontStyle = StringUtils.isNotEmpty((String) TableCfg.get("FontStyle"))
-						? getFontStyleValues((String) TableCfg.get("FontStyle"))
-						: DefaultFontStyle;
-
-				List<Map<String, Object>> DataList = tableDto.getDataList();
-				int columnSize = 0;
-				if (DataList.size() > 0)
-					columnSize = DataList.get(0).size();
-				Map<String, Object> rowMap = DataList.get(0);
-
-				List<String> colNameList = new ArrayList<String>();
-				List<Float> colWidthList = new ArrayList<Float>();
-				List<String> colTitleList = new ArrayList<String>();
-
-				List<String> colTitleFontNameList = new ArrayList<String>();
-				List<Float> colTitleFontSizeList = new ArrayList<Float>();
-				List<Integer> colTitleFontStyleList = new ArrayList<Integer>();
-				List<Color> colTitleFontColorList = new ArrayList<Color>();
-
-				List<Integer> colTitlevAlignList = new ArrayList<Integer>();
-				List<Integer> colTitlehAlignList = new ArrayList<Integer>();
-				List<Integer> colTitleBorderList = new ArrayList<Integer>();
-				List<Float> colTitleBorderWidthList = new ArrayList<Float>();
-				List<Color> colTitleBorderColorList = new ArrayList<Color>();
-				List<Color> colTitleBroundColorList = new ArrayList<Color>();
-
-				List<String> colFontNameList = new ArrayList<String>();
-				List<Float> colFontSizeList = new ArrayList<Float>();
-				List<Integer> colFontStyleList = new ArrayList<Integer>();
-				List<Color> colFontColorList = new ArrayList<Color>();
-
-				List<Integer> colvAlignList = new ArrayList<Integer>();
-				List<Integer> colhAlignList = new ArrayList<Integer>();
-				List<Integer> colBorderList = new ArrayList<Integer>();
-				List<Float> colBorderWidthList = new ArrayList<Float>();
-				List<Color> colBorderColorList = new ArrayList<Color>();
-				List<Color> colBroundColorList = new ArrayList<Color>();
-
-				if ((tableDto != null) && (acroFields.getField(key) != null)) {
-					// 獲取 AcroFields 對象
-					AcroFields fields = reader.getAcroFields();
-					// 獲取指定字段的位置 (使用字段名稱)
-					PdfDictionary fieldDict = fields.getFieldItem(key).getWidget(0);
-					// 獲取欄位的 Rect 矩形
-					PdfArray rectArray = fieldDict.getAsArray(PdfName.RECT);
-					float left = rectArray.getAsNumber(0).floatValue();
-					float bottom = rectArray.getAsNumber(1).floatValue();
-					float right = rectArray.getAsNumber(2).floatValue();
-					float top = rectArray.getAsNumber(3).floatValue();
-
-					PdfRectangle rect = new PdfRectangle(left, bottom, right, top);
-					float width = rect.right() - rect.left();
-					Map<String, Object> sortedMap = new TreeMap<>(rowMap);
-					for (Entry<String, Object> colID : sortedMap.entrySet()) {
-						colNameList.add((String) colID.getKey());
-						TreeMap<String, Object> columnCfg = new TreeMap<String, Object>();
-						if (TableCfg.containsKey((String) colID.getKey())
-								&& TableCfg.get((String) colID.getKey()) instanceof Map) {
-							columnCfg = (TreeMap<String, Object>) TableCfg.get((String) colID.getKey());
-							colWidthList.add(Float.parseFloat((String) columnCfg.get("ColWidths")));
-							colTitleList.add((String) columnCfg.get("ColTitle"));
-							TreeMap<String, Object> TitleFontsCfg = new TreeMap<String, Object>();
-							if (columnCfg.containsKey("TitleFonts") && columnCfg.get("TitleFonts") instanceof Map) {
-								TitleFontsCfg = (TreeMap<String, Object>) columnCfg.get("TitleFonts");
-								if (TitleFontsCfg.containsKey("FontName"))
-									colTitleFontNameList.add((String) TitleFontsCfg.get("FontName"));
-								else
-									colTitleFontNameList.add(DefaultFontName.split(",")[0]);// 只取第1個字型
-								if (TitleFontsCfg.containsKey("FontSize"))
-									colTitleFontSizeList.add(TitleFontsCfg.get("FontSize") == null ? DefaultFontSize
-											: Float.parseFloat((String) TitleFontsCfg.get("FontSize")));
-								else
-									colTitleFontSizeList.add(DefaultFontSize);
-								if (TitleFontsCfg.containsKey("FontStyle"))
-									colTitleFontStyleList
-											.add(getFontStyleValues((String) TitleFontsCfg.get("FontStyle")));
-								else
-									colTitleFontStyleList.add(DefaultFontStyle);
-								if (TitleFontsCfg.containsKey("FontColor"))
-									colTitleFontColorList.add(getColorValues((String) TitleFontsCfg.get("FontColor")));
-								else
-									colTitleFontColorList.add(DefaultFontColor);
-							} else {
-								colTitleFontNameList.add(DefaultFontName.split(",")[0]);// 只取第1個字型
-								colTitleFontSizeList.add(DefaultFontSize);
-								colTitleFontStyleList.add(DefaultFontStyle);
-								colTitleFontColorList.add(DefaultFontColor);
-							}
-							TreeMap<String, Object> TitleStyleCfg = new TreeMap<String, Object>();
-							if (columnCfg.containsKey("TitleStyles") && columnCfg.get("TitleStyles") instanceof Map) {
-								TitleStyleCfg = (TreeMap<String, Object>) columnCfg.get("TitleStyles");
-								if (TitleStyleCfg.containsKey("vAlign"))
-									colTitlevAlignList
-											.add(getVerticalAlignValues((String) TitleStyleCfg.get("vAlign")));
-								else
-									colTitlevAlignList.add(DefaultVAlign);
-								if (TitleStyleCfg.containsKey("hAlign"))
-									colTitlehAlignList
-											.add(getHorizontalAlignValues((String) TitleStyleCfg.get("hAlign")));
-								else
-									colTitlehAlignList.add(DefaultHAlign);
-								if (TitleStyleCfg.containsKey("Border"))
-									colTitleBorderList.add(getRectangleValues((String) TitleStyleCfg.get("Border")));
-								else
-									colTitleBorderList.add(DefaultBorder);
-								if (TitleStyleCfg.containsKey("BorderWidth"))
-									colTitleBorderWidthList
-											.add(TitleStyleCfg.get("BorderWidth") == null ? DefaultBorderWidth
-													: Float.parseFloat((String) TitleStyleCfg.get("BorderWidth")));
-								else
-									colTitleBorderWidthList.add(DefaultBorderWidth);
-								if (TitleStyleCfg.containsKey("BorderColor"))
-									colTitleBorderColorList
-											.add(getColorValues((String) TitleStyleCfg.get("BorderColor")));
-								else
-									colTitleBorderColorList.add(DefaultFontColor);
-								if (TitleStyleCfg.containsKey("BroundColor"))
-									if (StringUtils.isEmpty((String) TitleStyleCfg.get("BroundColor")))
-										colTitleBroundColorList.add(DefaultBroundColor);
-									else
-										colTitleBroundColorList
-												.add(getColorValues((String) TitleStyleCfg.get("BroundColor")));
-								else
-									colTitleBroundColorList.add(DefaultBroundColor);
-							} else {
-								colTitlevAlignList.add(DefaultVAlign);
-								colTitlehAlignList.add(DefaultHAlign);
-								colTitleBorderList.add(DefaultBorder);
-								colTitleBorderWidthList.add(DefaultBorderWidth);
-								colTitleBorderColorList.add(DefaultFontColor);
-								colTitleBroundColorList.add(DefaultBroundColor);
-							}
-							TreeMap<String, Object> ColFontsCfg = new TreeMap<String, Object>();
-							if (columnCfg.containsKey("ColFonts") && columnCfg.get("ColFonts") instanceof Map) {
-								ColFontsCfg = (TreeMap<String, Object>) columnCfg.get("ColFonts");
-								if (ColFontsCfg.containsKey("FontName"))
-									colFontNameList.add((String) ColFontsCfg.get("FontName"));
-								else
-									colFontNameList.add(DefaultFontName.split(",")[0]);// 只取第1個字型
-								if (ColFontsCfg.containsKey("FontSize"))
-									colFontSizeList.add(ColFontsCfg.get("FontSize") == null ? DefaultFontSize
-											: Float.parseFloat((String) ColFontsCfg.get("FontSize")));
-								else
-									colFontSizeList.add(DefaultFontSize);
-								if (ColFontsCfg.containsKey("FontStyle"))
-									colFontStyleList.add(getFontStyleValues((String) ColFontsCfg.get("FontStyle")));
-								else
-									colFontStyleList.add(DefaultFontStyle);
-								if (ColFontsCfg.containsKey("FontColor"))
-									colFontColorList.add(getColorValues((String) ColFontsCfg.get("FontColor")));
-								else
-									colFontColorList.add(DefaultFontColor);
-							} else {
-								colFontNameList.add(DefaultFontName.split(",")[0]);// 只取第1個字型
-								colFontSizeList.add(DefaultFontSize);
-								colFontStyleList.add(DefaultFontStyle);
-								colFontColorList.add(DefaultFontColor);
-							}
-
-							TreeMap<String, Object> ColStyleCfg = new TreeMap<String, Object>();
-							if (columnCfg.containsKey("ColStyles") && columnCfg.get("ColStyles") instanceof Map) {
-								ColStyleCfg = (TreeMap<String, Object>) columnCfg.get("ColStyles");
-								if (ColStyleCfg.containsKey("vAlign"))
-									colvAlignList.add(getVerticalAlignValues((String) ColStyleCfg.get("vAlign")));
-								else
-									colvAlignList.add(DefaultVAlign);
-								if (ColStyleCfg.containsKey("hAlign"))
-									colhAlignList.add(getHorizontalAlignValues((String) ColStyleCfg.get("hAlign")));
-								else
-									colhAlignList.add(DefaultHAlign);
-								if (ColStyleCfg.containsKey("Border"))
-									colBorderList.add(getRectangleValues((String) ColStyleCfg.get("Border")));
-								else
-									colBorderList.add(DefaultBorder);
-								if (ColStyleCfg.containsKey("BorderWidth"))
-									colBorderWidthList.add(ColStyleCfg.get("BorderWidth") == null ? DefaultBorderWidth
-											: Float.parseFloat((String) ColStyleCfg.get("BorderWidth")));
-								else
-									colBorderWidthList.add(DefaultBorderWidth);
-								if (ColStyleCfg.containsKey("BorderColor"))
-									colBorderColorList.add(getColorValues((String) ColStyleCfg.get("BorderColor")));
-								else
-									colTitleBorderColorList.add(DefaultFontColor);
-								if (ColStyleCfg.containsKey("BroundColor"))
-									if (StringUtils.isEmpty((String) ColStyleCfg.get("BroundColor")))
-										colBroundColorList.add(DefaultBroundColor);
-									else
-										colBroundColorList.add(getColorValues((String) ColStyleCfg.get("BroundColor")));
-								else
-									colBroundColorList.add(DefaultBroundColor);
-							} else {
-								colvAlignList.add(DefaultVAlign);
-								colhAlignList.add(DefaultHAlign);
-								colBorderList.add(DefaultBorder);
-								colBorderWidthList.add(DefaultBorderWidth);
-								colBorderColorList.add(DefaultFontColor);
-								colBroundColorList.add(DefaultBroundColor);
-							}
-						} else {
-							colWidthList.add(width / columnSize);
-							colTitleList.add("");
-
-							colTitleFontNameList.add(DefaultFontName.split(",")[0]);// 只取第1個字型
-							colTitleFontSizeList.add(DefaultFontSize);
-							colTitleFontStyleList.add(DefaultFontStyle);
-							colTitleFontColorList.add(DefaultFontColor);
-
-							colTitlevAlignList.add(DefaultVAlign);
-							colTitlehAlignList.add(DefaultHAlign);
-							colTitleBorderList.add(DefaultBorder);
-							colTitleBorderWidthList.add(DefaultBorderWidth);
-							colTitleBorderColorList.add(DefaultFontColor);
-							colTitleBroundColorList.add(DefaultBroundColor);
-
-							colFontNameList.add(DefaultFontName.split(",")[0]);// 只取第1個字型
-							colFontSizeList.add(DefaultFontSize);
-							colFontStyleList.add(DefaultFontStyle);
-							colFontColorList.add(DefaultFontColor);
-
-							colvAlignList.add(DefaultVAlign);
-							colhAlignList.add(DefaultHAlign);
-							colBorderList.add(DefaultBorder);
-							colBorderWidthList.add(DefaultBorderWidth);
-							colBorderColorList.add(DefaultFontColor);
-							colBroundColorList.add(DefaultBroundColor);
-						}
-					}
+	/**
+	 * 以向量圖形繪製二維碼，依欄位大小縮放
+	 * 
+	 * @param cb       - 繪製的目標
+	 * @param rect     - 欄位位置
+	 * @param noMargin - 是否去除白邊，去除時靠左下，否則置中
+	 * @param matrix   - 二維碼，去除白邊時為已裁剪的
+	 */
+	private void drawVector(PdfContentByte cb, PdfRectangle rect, boolean noMargin, BitMatrix matrix) {
+		// 等比例縮放至欄位內，PDF417 等非正方形的條碼也不超出欄位
+		float scale = Math.min(rect.width() / matrix.getWidth(), rect.height() / matrix.getHeight());
+		float x = rect.left();
+		float y = rect.bottom();
+		if (!noMargin) {
+			x += (rect.width() - matrix.getWidth() * scale) / 2.0F;
+			y += (rect.height() - matrix.getHeight() * scale) / 2.0F;
+		}
+		cb.saveState();
+		cb.concatCTM(scale, 0, 0, scale, x, y);
+		BitMatrixRenderer.draw(cb, matrix, new Color(qrCodeForeColor, true),
+				qrCodeBackColor == null ? null : new Color(qrCodeBackColor, true));
+		cb.restoreState();
+	}
 
-					// 建立表格
-					String[] colFields = colNameList.toArray(new String[0]);
-					PdfPTable table = new PdfPTable(colFields.length);
-					float[] widths = ArrayUtils.toPrimitive(colWidthList.toArray(new Float[0]),
-							width / colFields.length);
-					try {
-						table.setTotalWidth(width);
-						table.setLockedWidth(true);
-						table.setHorizontalAlignment(DefaultVAlign);
-						table.getDefaultCell().setBorder(DefaultBorder);
-						table.setWidths(widths);
-					} catch (Exception e) {
-						logger.error(e.toString());
-					}
-					// 建立表頭
-					int j = 0;
-					Font[] titleFonts = new Font[colFields.length];
-					for (int k = 0; k < colFields.length; k++) {
-						titleFonts[k] = createFontStyle(colTitleFontNameList.get(k), colTitleFontSizeList.get(k),
-								colTitleFontStyleList.get(k), colTitleFontColorList.get(k));
-					}
+	/**
+	 * 繪製圖片
+	 * 
+	 * @param value - 圖片位置或 byte[]
+	 */
+	private static void drawImage(ExportContext ctx, TemplateFieldIndex.FieldInfo field, Object value)
+			throws Exception {
+		// 由欄位索引取位置(左下右上)及頁碼
+		PdfRectangle rect = field.getRectangle();
 
-					TableCellStyle[] titleStyle = new TableCellStyle[colFields.length];
-					for (int k = 0; k < colFields.length; k++) {
-						titleStyle[k] = setColStyle(colTitlevAlignList.get(k), colTitlehAlignList.get(k),
-								colTitleBorderList.get(k), colTitleBorderWidthList.get(k),
-								colTitleBorderColorList.get(k), colTitleBroundColorList.get(k));
-					}
+		float x = rect.left();
+		float y = rect.bottom();
 
-					String TableTitle[] = colTitleList.toArray(new String[0]);
-					for (String col : TableTitle) {
-						table.addCell(createCell(col, titleFonts[j], titleStyle[j]));
-						j++;
-					}
-					// 建立表體
-					Font[] colFonts = new Font[colFields.length];
-					for (int k = 0; k < colFields.length; k++) {
-						colFonts[k] = createFontStyle(colFontNameList.get(k), colFontSizeList.get(k),
-								colFontStyleList.get(k), colFontColorList.get(k));
-					}
+		Image image = ctx.assets == null ? null : (Image) ctx.assets.get(ExportRequest.IMAGE, field.getIndex());
+		if (image == null)
+			image = loadImage(field, value);
+		PdfContentByte under = ctx.stamper.getOverContent(field.getPage());
 
-					TableCellStyle[] colstyle = new TableCellStyle[colFields.length];
-					for (int k = 0; k < colFields.length; k++) {
-						colstyle[k] = setColStyle(colvAlignList.get(k), colhAlignList.get(k), colBorderList.get(k),
-								colBorderWidthList.get(k), colBorderColorList.get(k), colBroundColorList.get(k));
-					}
+		image.scaleToFit(rect.width(), rect.height());
 
-					List<Map<String, Object>> dataList = tableDto.getDataList();
-					if (dataList != null && dataList.size() > 0) {
-						for (int i = 0; i < dataList.size(); i++) {
-							Map<String, Object> row = dataList.get(i);
-							j = 0;
-							for (String field : colFields) {
-								table.addCell(createCell(row.get(field), colFonts[j], colstyle[j]));
-								j++;
-							}
-						}
-					}
-					PdfContentByte cb = ps.getOverContent(1);
-					table.writeSelectedRows(0, -1, 0, -1, rect.left(), rect.top(), cb);
-				}
+		image.setAbsolutePosition(x, y);
+		under.addImage(image);
+	}
+
+	/**
+	 * 讀取並解碼圖片，不需 PdfStamper，可在其他執行緒中讀取
+	 * 
+	 * @param field - 圖片欄位
+	 * @param value - 圖片位置或 byte[]
+	 * @return
+	 * @throws IllegalArgumentException 其他型態
+	 */
+	private static Image loadImage(TemplateFieldIndex.FieldInfo field, Object value) throws Exception {
+		checkImage(field, value);
+		if ((value instanceof String))
+			return Image.getInstance(value.toString());
+		return Image.getInstance((byte[]) value);
+	}
+
+	/**
+	 * 檢查圖片欄位的值，只接受圖片位置或 byte[]
+	 */
+	private static void checkImage(TemplateFieldIndex.FieldInfo field, Object value) {
+		if (!(value instanceof String) && !(value instanceof byte[]))
+			throw new IllegalArgumentException("Field [" + field.getName() + "] image type ["
+					+ value.getClass().getName() + "] not supported!");
+	}
+
+	/**
+	 * 繪製表格
+	 */
+	private void drawTable(ExportContext ctx, TemplateFieldIndex.FieldInfo field, TableFields tableDto)
+			throws Exception {
+		PdfTemplateModel.TableFieldConfig TableCfg = ctx.model.getTableFields().get(field.getName());
+		if (TableCfg == null || tableDto == null || tableDto.getDataList() == null
+				|| tableDto.getDataList().isEmpty())
+			return;
+
+		List<Map<String, Object>> dataList = tableDto.getDataList();
+		int columnSize = dataList.get(0).size();
+
+		// 由欄位索引取位置(左下右上)及頁碼
+		PdfRectangle rect = field.getRectangle();
+		float width = rect.right() - rect.left();
+
+		// 依第一列的欄位名稱排序建立表格行
+		String[] colFields = new TreeMap<String, Object>(dataList.get(0)).keySet().toArray(new String[0]);
+		float[] widths = new float[colFields.length];
+		ColumnStyle[] colStyles = new ColumnStyle[colFields.length];
+		String TableTitle[] = new String[colFields.length];
+		for (int k = 0; k < colFields.length; k++) {
+			PdfTemplateModel.ColumnConfig columnCfg = TableCfg.getColumn(colFields[k]);
+			widths[k] = columnCfg.getColWidth() == null ? width / columnSize : columnCfg.getColWidth();
+			TableTitle[k] = columnCfg.getColTitle();
+			colStyles[k] = getColumnStyle(columnCfg);
+		}
+
+		// 建立表格
+		PdfPTable table = new PdfPTable(colFields.length);
+		try {
+			table.setTotalWidth(width);
+			table.setLockedWidth(true);
+			table.setHorizontalAlignment(DefaultVAlign);
+			table.getDefaultCell().setBorder(DefaultBorder);
+			table.setWidths(widths);
+		} catch (Exception e) {
+			logger.error(e.toString());
+		}
+		PdfStamper ps = ctx.stamper;
+		PdfContentByte cb = ps.getOverContent(field.getPage());
+		Rectangle pageSize = ctx.reader.getPageSize(field.getPage());
+		float y = rect.top();
+		// 建立表頭
+		for (int j = 0; j < colFields.length; j++) {
+			table.addCell(createCell(TableTitle[j], colStyles[j].titleFont, colStyles[j].titleStyle));
+		}
+		// 建立表體，每 TABLE_FLUSH_ROWS 列寫出一次，不需同時保留所有列的單元格及內容
+		int rows = 0;
+		for (Map<String, Object> row : dataList) {
+			for (int j = 0; j < colFields.length; j++) {
+				table.addCell(createCell(row.get(colFields[j]), colStyles[j].colFont, colStyles[j].colStyle));
+			}
+			if (++rows % TABLE_FLUSH_ROWS == 0)
+				y = writeRows(ps, cb, pageSize, table, rect.left(), y);
+		}
+		if (table.size() > 0)
+			writeRows(ps, cb, pageSize, table, rect.left(), y);
+	}
+
+	/**
+	 * 將表格目前的列畫在 PdfTemplate 後立即寫入輸出串流，並移除已寫入的列
+	 * 
+	 * @param ps       - PdfStamper
+	 * @param cb       - 表格所在頁
+	 * @param pageSize - 頁面大小
+	 * @param table    - 表格
+	 * @param x        - 表格左邊位置
+	 * @param y        - 第一列的上方位置
+	 * @return 最後一列的下方位置
+	 * @throws IOException
+	 */
+	private static float writeRows(PdfStamper ps, PdfContentByte cb, Rectangle pageSize, PdfPTable table, float x,
+			float y) throws IOException {
+		PdfTemplate rowsTemplate = cb.createTemplate(pageSize.getWidth(), pageSize.getHeight());
+		rowsTemplate.setBoundingBox(pageSize);
+		float bottom = table.writeSelectedRows(0, -1, 0, -1, x, y, rowsTemplate);
+		cb.addTemplate(rowsTemplate, 0, 0);
+		// 內容直接寫入輸出串流，不保留到 PdfStamper 關閉
+		ps.getWriter().releaseTemplate(rowsTemplate);
+		table.deleteBodyRows();
+		return bottom;
+	}
+
+	/**
+	 * 檢查欄位是否都在範本中
+	 * 
+	 * @param fieldIndex - 範本欄位索引
+	 * @param fields     - 各類欄位
+	 * @throws IllegalArgumentException 範本中沒有的欄位
+	 */
+	@SafeVarargs
+	private static void checkFields(TemplateFieldIndex fieldIndex, Map<String, ?>... fields) {
+		for (Map<String, ?> map : fields) {
+			for (String key : map.keySet()) {
+				if (!fieldIndex.contains(key))
+					throw new IllegalArgumentException("Field [" + key + "] not in template!");
 			}
 		}
-		ps.setFormFlattening(true);
-		ps.close();
-		reader.close();
-		return bos;
 	}
 
 	/**
@@ -887,14 +1034,9 @@ public class PdfTemplateExport {
 	public void export(OutputStream os, Map<String, Object> textFields, Map<String, Object> barcodeFields,
 			Map<String, Object> qrcodeFields, Map<String, Object> imgFields, Map<String, TableFields> tableFields,
 			Map<String, Object> checkboxFields, Map<String, Object> groupFields) throws Exception {
-		ByteArrayOutputStream bos = export(textFields, barcodeFields, qrcodeFields, imgFields, tableFields,
+		// 直接寫入輸出串流，完成後關閉
+		export(getCompiledTemplate(), os, textFields, barcodeFields, qrcodeFields, imgFields, tableFields,
 				checkboxFields, groupFields);
-
-		os.write(bos.toByteArray());
-		os.flush();
-		os.close();
-
-		bos.close();
 	}
 
 	/**
@@ -932,11 +1074,19 @@ public class PdfTemplateExport {
 	public void export(String outputFile, Map<String, Object> textFields, Map<String, Object> barcodeFields,
 			Map<String, Object> qrcodeFields, Map<String, Object> imgFields, Map<String, TableFields> tableFields,
 			Map<String, Object> checkboxFields, Map<String, Object> groupFields) throws Exception {
-		File outFile = new File(outputFile);
-		outFile.createNewFile();
-
-		export(new FileOutputStream(outFile), textFields, barcodeFields, qrcodeFields, imgFields, tableFields,
-				checkboxFields, groupFields);
+		Path outFile = Paths.get(outputFile);
+		CompiledTemplate compiled = getCompiledTemplate();
+		// 以 FileChannel 直接寫入檔案，失敗時刪除寫到一半的檔案
+		FileChannel channel = FileChannel.open(outFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		try (OutputStream os = new BufferedOutputStream(Channels.newOutputStream(channel), FILE_BUFFER_SIZE)) {
+			export(compiled, os, textFields, barcodeFields, qrcodeFields, imgFields, tableFields, checkboxFields,
+					groupFields);
+		} catch (Exception | Error e) {
+			channel.close();
+			Files.deleteIfExists(outFile);
+			throw e;
+		}
 	}
 
 	/**
@@ -969,12 +1119,20 @@ public class PdfTemplateExport {
 	 */
 	public Font createFontStyle(String fontName, float fontSize, int fontStyle, Color fontColor) throws Exception {
 		if (StringUtils.isEmpty(fontName)) {
-			fontName = DefaultFontName;
+			// 已編譯範本時採用範本的預設字型
+			CompiledTemplate compiled = this.compiledTemplate;
+			fontName = compiled == null ? PdfTemplateModel.DEFAULT_FONT_NAME
+					: compiled.getModel().getTextFields().getDefaultFont().getFontName();
 		}
-		BaseFont bf = BaseFont.createFont(getFontPath(fontName), BaseFont.IDENTITY_H, BaseFont.NOT_EMBEDDED);
+		BaseFont bf = BaseFontCache.getDefault().get(getFontPath(fontName), BaseFont.IDENTITY_H,
+				BaseFont.NOT_EMBEDDED);
 		return new Font(bf, fontSize, fontStyle, fontColor);
 	}
 
+	private Font createFontStyle(PdfTemplateModel.FontSetting font) throws Exception {
+		return createFontStyle(font.getFontName(), font.getFontSize(), font.getFontStyle(), font.getFontColor());
+	}
+
 	/**
 	 * 設定單元格風格
 	 * 
@@ -1051,6 +1209,30 @@ public class PdfTemplateExport {
 		return cell;
 	}
 
+	private TableCellStyle setColStyle(PdfTemplateModel.CellSetting style) {
+		return setColStyle(style.getvAlign(), style.gethAlign(), style.getBorder(), style.getBorderWidth(),
+				style.getBorderColor(), style.getGroundColor());
+	}
+
+	/**
+	 * 取表格行的字型及單元格風格，同一個行設定只建立一次
+	 * 
+	 * @param columnCfg - 表格行設定
+	 * @return
+	 * @throws Exception
+	 */
+	private ColumnStyle getColumnStyle(PdfTemplateModel.ColumnConfig columnCfg) throws Exception {
+		ColumnStyle style = columnStyles.get(columnCfg);
+		if (style == null) {
+			style = new ColumnStyle(createFontStyle(columnCfg.getTitleFont()), setColStyle(columnCfg.getTitleStyle()),
+					createFontStyle(columnCfg.getColFont()), setColStyle(columnCfg.getColStyle()));
+			ColumnStyle exists = columnStyles.putIfAbsent(columnCfg, style);
+			if (exists != null)
+				style = exists;
+		}
+		return style;
+	}
+
 	/**
 	 * 強制將白邊去掉<br>
 	 * 
@@ -1062,9 +1244,10 @@ public class PdfTemplateExport {
 	 * @return 裁剪後的二維碼（實際二維碼的大小）
 	 */
 	private static BitMatrix deleteWhite(BitMatrix matrix) {
+		// 左、上、寬、高
 		int[] rec = matrix.getEnclosingRectangle();
-		int resWidth = rec[2] + 1;
-		int resHeight = rec[3] + 1;
+		int resWidth = rec[2];
+		int resHeight = rec[3];
 
 		BitMatrix resMatrix = new BitMatrix(resWidth, resHeight);
 		resMatrix.clear();
@@ -1075,14 +1258,6 @@ public class PdfTemplateExport {
 				}
 			}
 		}
-		int width = resMatrix.getWidth();
-		int height = resMatrix.getHeight();
-		BufferedImage image = new BufferedImage(width, height, 1);
-		for (int x = 0; x < width; x++) {
-			for (int y = 0; y < height; y++) {
-				image.setRGB(x, y, resMatrix.get(x, y) ? 0 : 255);
-			}
-		}
 		return resMatrix;
 	}
 
@@ -1097,7 +1272,7 @@ public class PdfTemplateExport {
 	 */
 	private static PdfPCell createCell(Object value, Font font, TableCellStyle cellstyle) {
 		PdfPCell cell = new PdfPCell();
-		cell.setPhrase(new Phrase((String) value == null ? "" : font.toString()));
+		cell.setPhrase(new Phrase(value == null ? "" : String.valueOf(value), font));
 		cell.setVerticalAlignment(cellstyle.getvAlign());
 		cell.setHorizontalAlignment(cellstyle.gethAlign());
 		cell.setBorderColor(cellstyle.getBorderColor());
@@ -1113,192 +1288,26 @@ public class PdfTemplateExport {
 	 * 參數中有多字型，只會取得第1個字型的路徑
 	 */
 	private String getFontPath(String fontName) throws RuntimeException {
-		String osName = System.getProperty("os.name").toLowerCase();
-		String userHome = System.getProperty("user.home");
-		String fontPath = "";
-		String fontFile = fontName.replace(",0", "").replace(",1", "");
-		if (fontFile.split(",").length > 1) {
-			fontFile = fontFile.split(",")[0];// 只取第1個字型
-			logger.info("參數[" + fontName + "]中有多字型，只取第1個字型[" + fontFile + "]");
-		}
-		if (osName.contains("win")) {
-			fontPath = userHome + "\\AppData\\Local\\Microsoft\\Windows\\Fonts\\";
-			if (!(new File(fontPath + fontFile).exists())) {
-				fontPath = "C:\\Windows\\Fonts\\";
-				if (!(new File(fontPath + fontFile).exists())) {
-					fontPath = "C:\\pdf_fonts\\";
-					if (!(new File(fontPath + fontFile).exists())) {
-						fontPath = "";
-					}
-				}
-			}
-		} else {
-			if (osName.indexOf("linux") > -1) {
-				fontPath = "/usr/share/fonts/";
-				if (!(new File(fontPath + fontFile).exists())) {
-					fontPath = "";
-				}
-			}
-		}
-
-		if (StringUtils.isBlank(fontPath)) {
-			throw new RuntimeException(fontName + "於預設的查詢路徑中都查不到!");
-		} else {
-			return fontPath + fontFile;
-		}
-	}
-
-	private Color getColorValues(String Colors) throws ClassNotFoundException, NoSuchFieldException, SecurityException {
-		Color color;
-		if (StringUtils.isEmpty(Colors))
-			return DefaultFontColor;
-
-		String classname = "java.awt.Color";
-		Class<?> c = Class.forName(classname);
-		String ColorArray[] = Colors.split(",");
-		if (ColorArray.length == 3) {
-			int r = Integer.parseInt(ColorArray[0]);
-			int g = Integer.parseInt(ColorArray[1]);
-			int b = Integer.parseInt(ColorArray[2]);
-			color = new Color(r, g, b);
-		} else {
-			color = (Color) getFieldValue(c, c.getField(Colors));
-		}
-		return color;
-	}
-
-	private int getHorizontalAlignValues(String Elements)
-			throws ClassNotFoundException, NoSuchFieldException, SecurityException {
-		String classname = "com.lowagie.text.Element";
-		if (StringUtils.isEmpty(Elements))
-			return DefaultHAlign;
-		int values = 0;
-		String ElementArray[] = Elements.split("/");
-		for (String Element : ElementArray) {
-			Class<?> c = Class.forName(classname);
-			values = values | (int) getFieldValue(c, c.getField(Element.trim()));
-		}
-		return values;
-	}
-
-	private int getVerticalAlignValues(String Elements)
-			throws ClassNotFoundException, NoSuchFieldException, SecurityException {
-		String classname = "com.lowagie.text.Element";
-		if (StringUtils.isEmpty(Elements))
-			return DefaultVAlign;
-		int values = 0;
-		String ElementArray[] = Elements.split("/");
-		for (String Element : ElementArray) {
-			Class<?> c = Class.forName(classname);
-			values = values | (int) getFieldValue(c, c.getField(Element.trim()));
-		}
-		return values;
-	}
-
-	private ErrorCorrectionLevel getErrorCorrectionLevel(String Level) {
-		String[] LevelArray = { "M", "L", "H", "Q" };
-		int i = 0;
-		if (StringUtils.isEmpty(Level))
-			return ErrorCorrectionLevel.forBits(i);
-		for (String level : LevelArray) {
-			if (level.equalsIgnoreCase(Level)) {
-				break;
-			}
-			i++;
-		}
-		return ErrorCorrectionLevel.forBits(i);
-	}
-
-	private int getFontStyleValues(String Fonts)
-			throws ClassNotFoundException, NoSuchFieldException, SecurityException {
-		String classname = "com.lowagie.text.Font";
-		if (StringUtils.isEmpty(Fonts))
-			return DefaultFontStyle;
-		int values = 0;
-		String FontArray[] = Fonts.split("/");
-		for (String Font : FontArray) {
-			Class<?> c = Class.forName(classname);
-			values = values | (int) getFieldValue(c, c.getField(Font.trim()));
-		}
-		return values;
-	}
-
-	private int getRectangleValues(String Rectangles)
-			throws ClassNotFoundException, NoSuchFieldException, SecurityException {
-		String classname = "com.lowagie.text.Rectangle";
-		if (StringUtils.isEmpty(Rectangles))
-			return DefaultRectangle;
-		int values = 0;
-		String RectangleArray[] = Rectangles.split("/");
-		for (String Rectangle : RectangleArray) {
-			Class<?> c = Class.forName(classname);
-			values = values | (int) getFieldValue(c, c.getField(Rectangle.trim()));
-		}
-		return values;
-	}
-
-	private Object getFieldValue(Object obj, Field field) throws NoSuchFieldException {
-		if (null == field) {
-			return null;
-		}
-		if (obj instanceof Class) {
-			// 靜態欄位獲取時物件為null
-			obj = null;
-		}
-
-		if (null != field && false == field.isAccessible()) {
-			field.setAccessible(true);
-		}
-
-		Object result;
-		try {
-			result = field.get(obj);
-		} catch (IllegalAccessException e) {
-			throw new NoSuchFieldException("IllegalAccess for " + field.getDeclaringClass() + field.getName());
-		}
-		return result;
-	}
-
-	/**
-	 * BitMatrix轉BufferedImage
-	 *
-	 * @param matrix    BitMatrix
-	 * @param foreColor 前景色
-	 * @param backColor 背景色(null表示透明背景)
-	 * @return BufferedImage
-	 * @since 2.1.2
-	 */
-	private BufferedImage bitMatrixtoImage(BitMatrix matrix, int foreColor, Integer backColor) {
-		final int width = matrix.getWidth();
-		final int height = matrix.getHeight();
-		BufferedImage image = new BufferedImage(width, height,
-				null == backColor ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
-		for (int x = 0; x < width; x++) {
-			for (int y = 0; y < height; y++) {
-				if (matrix.get(x, y)) {
-					image.setRGB(x, y, foreColor);
-				} else if (null != backColor) {
-					image.setRGB(x, y, backColor);
-				}
-			}
-		}
-		return image;
+		return FontResolver.getDefault().resolve(fontName);
 	}
 
 	/**
 	 * 將內容編碼為條碼或二維碼
 	 *
-	 * @param content 文本內容
-	 * @param format  格式列舉
-	 * @param config  二維碼配置，包括長、寬、邊距、顏色等
+	 * @param content         文本內容
+	 * @param format          格式列舉
+	 * @param height          高度
+	 * @param width           寬度
+	 * @param errorCorrection 容錯等級
 	 * @return
 	 */
-	private BitMatrix encodeBarcode(String content, BarcodeFormat format, int height, int width) {
+	private BitMatrix encodeBarcode(String content, BarcodeFormat format, int height, int width,
+			ErrorCorrectionLevel errorCorrection) {
 		final MultiFormatWriter multiFormatWriter = new MultiFormatWriter();
 
 		BitMatrix bitMatrix;
 		try {
-			bitMatrix = multiFormatWriter.encode(content, format, width, height, toHints(format));
+			bitMatrix = multiFormatWriter.encode(content, format, width, height, toHints(format, errorCorrection));
 		} catch (WriterException e) {
 			throw new RuntimeException(e);
 		}
@@ -1307,25 +1316,38 @@ public class PdfTemplateExport {
 	}
 
 	/**
-	 * 轉換為Zxing的二維碼配置
+	 * 轉換為Zxing的二維碼配置，容錯等級為 M
 	 *
 	 * @param format 格式，根據格式不同
 	 * @return 配置
 	 */
 	public HashMap<EncodeHintType, Object> toHints(BarcodeFormat format) {
+		return toHints(format, ErrorCorrectionLevel.M);
+	}
+
+	/**
+	 * 轉換為Zxing的二維碼配置
+	 *
+	 * @param format                格式，根據格式不同
+	 * @param qrCodeErrorCorrection 容錯等級
+	 * @return 配置
+	 */
+	public HashMap<EncodeHintType, Object> toHints(BarcodeFormat format, ErrorCorrectionLevel qrCodeErrorCorrection) {
 		// 配置
 		final HashMap<EncodeHintType, Object> hints = new HashMap<>();
 
 		hints.put(EncodeHintType.CHARACTER_SET, charset.toString().toLowerCase());
 
-		Object value;
-		if (BarcodeFormat.AZTEC == format || BarcodeFormat.PDF_417 == format) {
-			value = qrCodeErrorCorrection.getBits();
-		} else {
-			value = qrCodeErrorCorrection;
+		if (BarcodeFormat.PDF_417 == format) {
+			// PDF417 的容錯等級為 0 ~ 8，L、M、Q、H 對應 2 ~ 5
+			hints.put(EncodeHintType.ERROR_CORRECTION, qrCodeErrorCorrection.ordinal() + 2);
+		} else if (BarcodeFormat.AZTEC == format) {
+			// Aztec 的容錯為百分比
+			hints.put(EncodeHintType.ERROR_CORRECTION, AZTEC_ERROR_CORRECTION[qrCodeErrorCorrection.ordinal()]);
+		} else if (BarcodeFormat.QR_CODE == format) {
+			hints.put(EncodeHintType.ERROR_CORRECTION, qrCodeErrorCorrection);
 		}
-
-		hints.put(EncodeHintType.ERROR_CORRECTION, value);
+		// DATA_MATRIX 的容錯固定，不需設定
 		hints.put(EncodeHintType.MARGIN, qrCodeMargin);
 		return hints;
 	}
@@ -1336,7 +1358,7 @@ public class PdfTemplateExport {
 	 * @param file
 	 * @return
 	 */
-	private String getResourcesPath(String file) {
+	private static String getResourcesPath(String file) {
 		Class<?> clazz = PdfTemplateConfig.class;
 		// 獲取當前 ClassLoader 的資源路徑
 		String classPath = clazz.getClassLoader().getResource("").getPath();
@@ -1355,7 +1377,7 @@ public class PdfTemplateExport {
 	 * 
 	 * @return
 	 */
-	private String getWebRootPath() {
+	private static String getWebRootPath() {
 		Class<?> clazz = PdfTemplateConfig.class;
 		String strClassName = clazz.getName();
 		String strPackageName = "";
@@ -1389,6 +1411,50 @@ public class PdfTemplateExport {
 		return new GsonBuilder().setPrettyPrinting().create().toJson(obj);
 	}
 
+	/**
+	 * 每次匯出的狀態，只在匯出的執行緒中使用
+	 * 
+	 */
+	private static final class ExportContext {
+		private final CompiledTemplate compiled;
+		private final PdfTemplateModel model;
+		private final TemplateFieldIndex fields;
+		// 表單欄位的預設字型，條碼文字也採用此字型
+		private final PdfTemplateModel.FontSetting defaultFont;
+		private PdfReader reader;
+		private PdfStamper stamper;
+		private AcroFields acroFields;
+		// 目前 PdfStamper 設定的替代字型
+		private ArrayList<BaseFont> substitutionFonts;
+		// 預先產生的條碼、二維碼及圖片，null 時於繪製時產生
+		private PreparedAssets assets;
+
+		private ExportContext(CompiledTemplate compiled) {
+			this.compiled = compiled;
+			this.model = compiled.getModel();
+			this.fields = compiled.getFields();
+			this.defaultFont = model.getTextFields().getDefaultFont();
+		}
+	}
+
+	/**
+	 * 表格行的字型及單元格風格，建立後不再修改，可由多次匯出共用
+	 * 
+	 */
+	private static final class ColumnStyle {
+		private final Font titleFont;
+		private final TableCellStyle titleStyle;
+		private final Font colFont;
+		private final TableCellStyle colStyle;
+
+		private ColumnStyle(Font titleFont, TableCellStyle titleStyle, Font colFont, TableCellStyle colStyle) {
+			this.titleFont = titleFont;
+			this.titleStyle = titleStyle;
+			this.colFont = colFont;
+			this.colStyle = colStyle;
+		}
+	}
+
 	/**
 	 * 表格欄位定義
 	 * 
@@ -1534,4 +1600,16 @@ public class PdfTemplateExport {
 			this.groundColor = groundColor;
 		}
 	}
+
+	/**
+	 * 範本簽章的處理方式
+	 */
+	public static enum SignaturePolicy {
+		/** 不驗證簽章 */
+		IGNORE,
+		/** 驗證一次並記錄結果，預設 */
+		LOG,
+		/** 驗證一次，有簽章驗證失敗或未涵蓋整份文件時拒絕匯出 */
+		REJECT;
+	}
 }
@@ -0,0 +1,827 @@
+package tools.pdf;
+
+import java.awt.Color;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.Rectangle;
+
+/**
+ * 範本設定<br>
+ * 由 PdfTemplateConfig 讀取後建立，數值、顏色、對齊、邊框等設定在載入時已解析完成，匯出時只需讀取欄位。<br>
+ * 建立後內容不可變更。
+ *
+ */
+public final class PdfTemplateModel {
+	// msjh.ttc 微軟正黑, mingliu.ttc 細明體, kaiu.ttf 標楷, simhei.ttf 黑體, simsun.ttc 微軟宋體,
+	// simfang.ttf 仿宋
+	// PDF 預設配置
+	static final String DEFAULT_FONT_NAME = "kaiu.ttf";
+	static final float DEFAULT_FONT_SIZE = 12F;
+	static final Color DEFAULT_FONT_COLOR = Color.BLACK;
+	static final int DEFAULT_FONT_STYLE = Font.NORMAL;
+	static final Color DEFAULT_BROUND_COLOR = Color.WHITE;
+	static final float DEFAULT_BORDER_WIDTH = 0.5F;
+	static final int DEFAULT_BORDER = Rectangle.NO_BORDER;
+	static final int DEFAULT_VALIGN = Element.ALIGN_MIDDLE;
+	static final int DEFAULT_HALIGN = Element.ALIGN_LEFT;
+	// Barcode 預設配置
+	static final float DEFAULT_BARCODE_TEXT_SIZE = 8F;
+	static final float DEFAULT_BARCODE_BASELINE = 10F;
+
+	/** 範本路徑檔名，未解析 classpath: 等前綴 */
+	private final String template;
+	private final TextFieldsConfig textFields;
+	private final Map<String, BarcodeFieldConfig> barcodeFields;
+	private final BarcodeFieldConfig defaultBarcodeField;
+	private final Map<String, QrcodeFieldConfig> qrcodeFields;
+	private final QrcodeFieldConfig defaultQrcodeField;
+	private final Map<String, ImageFieldConfig> imageFields;
+	private final Map<String, TableFieldConfig> tableFields;
+
+	private PdfTemplateModel(Map<String, Object> cfg) throws Exception {
+		this.template = cfg.get("Template") instanceof String ? (String) cfg.get("Template") : null;
+		this.textFields = new TextFieldsConfig(section(cfg, "TextFields"));
+		FontSetting textFont = textFields.getDefaultFont();
+
+		TreeMap<String, BarcodeFieldConfig> barcodes = new TreeMap<String, BarcodeFieldConfig>();
+		for (Map.Entry<String, Object> entry : section(cfg, "BarcodeFields").entrySet()) {
+			if (entry.getValue() instanceof Map)
+				barcodes.put(entry.getKey(), new BarcodeFieldConfig(map(entry.getValue()), textFont));
+		}
+		this.barcodeFields = Collections.unmodifiableMap(barcodes);
+		this.defaultBarcodeField = new BarcodeFieldConfig(Collections.<String, Object>emptyMap(), textFont);
+
+		TreeMap<String, QrcodeFieldConfig> qrcodes = new TreeMap<String, QrcodeFieldConfig>();
+		for (Map.Entry<String, Object> entry : section(cfg, "QrcodeFields").entrySet()) {
+			if (entry.getValue() instanceof Map)
+				qrcodes.put(entry.getKey(), new QrcodeFieldConfig(map(entry.getValue())));
+		}
+		this.qrcodeFields = Collections.unmodifiableMap(qrcodes);
+		this.defaultQrcodeField = new QrcodeFieldConfig(Collections.<String, Object>emptyMap());
+
+		TreeMap<String, ImageFieldConfig> images = new TreeMap<String, ImageFieldConfig>();
+		for (Map.Entry<String, Object> entry : section(cfg, "ImageFields").entrySet()) {
+			if (entry.getValue() instanceof Map)
+				images.put(entry.getKey(), new ImageFieldConfig(map(entry.getValue())));
+		}
+		this.imageFields = Collections.unmodifiableMap(images);
+
+		TreeMap<String, TableFieldConfig> tables = new TreeMap<String, TableFieldConfig>();
+		for (Map.Entry<String, Object> entry : section(cfg, "TableFields").entrySet()) {
+			if (entry.getValue() instanceof Map)
+				tables.put(entry.getKey(), new TableFieldConfig(map(entry.getValue()), textFont));
+		}
+		this.tableFields = Collections.unmodifiableMap(tables);
+	}
+
+	/**
+	 * 由設定資料建立範本設定
+	 *
+	 * @param config - PdfTemplateConfig.readConfig() 的結果
+	 * @return
+	 * @throws Exception 設定值無法解析
+	 */
+	static PdfTemplateModel from(Map<String, Object> config) throws Exception {
+		if (config.get("configuration") instanceof Map)
+			return new PdfTemplateModel(map(config.get("configuration")));
+		return new PdfTemplateModel(Collections.<String, Object>emptyMap());
+	}
+
+	/**
+	 * 沒有設定檔時的範本設定，全部採用預設值
+	 *
+	 * @return
+	 * @throws Exception
+	 */
+	static PdfTemplateModel empty() throws Exception {
+		return new PdfTemplateModel(Collections.<String, Object>emptyMap());
+	}
+
+	/**
+	 * 取範本路徑檔名，未解析 classpath: 等前綴
+	 *
+	 * @return
+	 */
+	public String getTemplate() {
+		return template;
+	}
+
+	/**
+	 * 取設定中用到的所有字型名稱，多字型設定拆開為個別字型
+	 *
+	 * @return
+	 */
+	public Set<String> getFontNames() {
+		LinkedHashSet<String> names = new LinkedHashSet<String>(textFields.getSubstitutionFontNames());
+		for (TableFieldConfig table : tableFields.values()) {
+			names.addAll(FontResolver.splitFontNames(table.getFont().getFontName()));
+			for (ColumnConfig column : table.getColumns().values()) {
+				names.addAll(FontResolver.splitFontNames(column.getTitleFont().getFontName()));
+				names.addAll(FontResolver.splitFontNames(column.getColFont().getFontName()));
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * 取表單欄位集
+	 *
+	 * @return
+	 */
+	public TextFieldsConfig getTextFields() {
+		return textFields;
+	}
+
+	/**
+	 * 取 Barcode 類欄位集
+	 *
+	 * @return
+	 */
+	public Map<String, BarcodeFieldConfig> getBarcodeFields() {
+		return barcodeFields;
+	}
+
+	/**
+	 * 取 Barcode 欄位設定，未設定者採用預設值
+	 *
+	 * @param id - 欄位名稱
+	 * @return
+	 */
+	public BarcodeFieldConfig getBarcodeField(String id) {
+		BarcodeFieldConfig field = barcodeFields.get(id);
+		return field == null ? defaultBarcodeField : field;
+	}
+
+	/**
+	 * 取 Qrcode 類欄位集
+	 *
+	 * @return
+	 */
+	public Map<String, QrcodeFieldConfig> getQrcodeFields() {
+		return qrcodeFields;
+	}
+
+	/**
+	 * 取 Qrcode 欄位設定，未設定者採用預設值
+	 *
+	 * @param id - 欄位名稱
+	 * @return
+	 */
+	public QrcodeFieldConfig getQrcodeField(String id) {
+		QrcodeFieldConfig field = qrcodeFields.get(id);
+		return field == null ? defaultQrcodeField : field;
+	}
+
+	/**
+	 * 取圖片類欄位集
+	 *
+	 * @return
+	 */
+	public Map<String, ImageFieldConfig> getImageFields() {
+		return imageFields;
+	}
+
+	/**
+	 * 取表格類欄位集，未設定的表格不輸出
+	 *
+	 * @return
+	 */
+	public Map<String, TableFieldConfig> getTableFields() {
+		return tableFields;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> map(Object value) {
+		return (Map<String, Object>) value;
+	}
+
+	private static Map<String, Object> section(Map<String, Object> cfg, String name) {
+		if (cfg.get(name) instanceof Map)
+			return map(cfg.get(name));
+		return Collections.emptyMap();
+	}
+
+	private static String text(Map<String, Object> cfg, String name) {
+		return cfg.get(name) instanceof String ? (String) cfg.get(name) : null;
+	}
+
+	private static Float floatValue(Map<String, Object> cfg, String name) {
+		String value = text(cfg, name);
+		return StringUtils.isEmpty(value) ? null : Float.valueOf(value);
+	}
+
+	private static Integer intValue(Map<String, Object> cfg, String name) {
+		String value = text(cfg, name);
+		return StringUtils.isEmpty(value) ? null : Integer.valueOf(value);
+	}
+
+	/**
+	 * 字型設定
+	 *
+	 */
+	public static final class FontSetting {
+		private final String fontName;
+		private final float fontSize;
+		private final int fontStyle;
+		private final Color fontColor;
+
+		FontSetting(String fontName, float fontSize, int fontStyle, Color fontColor) {
+			this.fontName = fontName;
+			this.fontSize = fontSize;
+			this.fontStyle = fontStyle;
+			this.fontColor = fontColor;
+		}
+
+		/**
+		 * 由 FontName、FontSize、FontStyle、FontColor 設定建立，未設定者採用 defaults
+		 */
+		private static FontSetting parse(Map<String, Object> cfg, FontSetting defaults, String defaultFontName)
+				throws Exception {
+			String fontName = StringUtils.isNotEmpty(text(cfg, "FontName")) ? text(cfg, "FontName")
+					: defaultFontName;
+			Float fontSize = floatValue(cfg, "FontSize");
+			return new FontSetting(fontName, fontSize == null ? defaults.fontSize : fontSize,
+					StyleValues.getFontStyleValues(text(cfg, "FontStyle"), defaults.fontStyle),
+					StyleValues.getColorValues(text(cfg, "FontColor"), defaults.fontColor));
+		}
+
+		/**
+		 * 取字型名稱，多字型以","分隔
+		 *
+		 * @return
+		 */
+		public String getFontName() {
+			return fontName;
+		}
+
+		/**
+		 * 取字型大小
+		 *
+		 * @return
+		 */
+		public float getFontSize() {
+			return fontSize;
+		}
+
+		/**
+		 * 取字型風格
+		 *
+		 * @return
+		 */
+		public int getFontStyle() {
+			return fontStyle;
+		}
+
+		/**
+		 * 取字型顏色
+		 *
+		 * @return
+		 */
+		public Color getFontColor() {
+			return fontColor;
+		}
+	}
+
+	/**
+	 * 單元格風格設定
+	 *
+	 */
+	public static final class CellSetting {
+		private final int vAlign;
+		private final int hAlign;
+		private final int border;
+		private final float borderWidth;
+		private final Color borderColor;
+		private final Color groundColor;
+
+		CellSetting(int vAlign, int hAlign, int border, float borderWidth, Color borderColor, Color groundColor) {
+			this.vAlign = vAlign;
+			this.hAlign = hAlign;
+			this.border = border;
+			this.borderWidth = borderWidth;
+			this.borderColor = borderColor;
+			this.groundColor = groundColor;
+		}
+
+		/**
+		 * 由 vAlign、hAlign、Border、BorderWidth、BorderColor、BroundColor 設定建立，未設定者採用預設值
+		 */
+		private static CellSetting parse(Map<String, Object> cfg, Color defaultBorderColor) throws Exception {
+			Float borderWidth = floatValue(cfg, "BorderWidth");
+			return new CellSetting(StyleValues.getVerticalAlignValues(text(cfg, "vAlign"), DEFAULT_VALIGN),
+					StyleValues.getHorizontalAlignValues(text(cfg, "hAlign"), DEFAULT_HALIGN),
+					StyleValues.getRectangleValues(text(cfg, "Border"), DEFAULT_BORDER),
+					borderWidth == null ? DEFAULT_BORDER_WIDTH : borderWidth,
+					StyleValues.getColorValues(text(cfg, "BorderColor"), defaultBorderColor),
+					StyleValues.getColorValues(text(cfg, "BroundColor"), DEFAULT_BROUND_COLOR));
+		}
+
+		/**
+		 * 取垂直對齊方式
+		 *
+		 * @return
+		 */
+		public int getvAlign() {
+			return vAlign;
+		}
+
+		/**
+		 * 取水平對齊方式
+		 *
+		 * @return
+		 */
+		public int gethAlign() {
+			return hAlign;
+		}
+
+		/**
+		 * 取邊框
+		 *
+		 * @return
+		 */
+		public int getBorder() {
+			return border;
+		}
+
+		/**
+		 * 取邊框寬度
+		 *
+		 * @return
+		 */
+		public float getBorderWidth() {
+			return borderWidth;
+		}
+
+		/**
+		 * 取邊框顏色
+		 *
+		 * @return
+		 */
+		public Color getBorderColor() {
+			return borderColor;
+		}
+
+		/**
+		 * 取背景顏色
+		 *
+		 * @return
+		 */
+		public Color getGroundColor() {
+			return groundColor;
+		}
+	}
+
+	/**
+	 * 表單欄位集設定
+	 *
+	 */
+	public static final class TextFieldsConfig {
+		private final FontSetting defaultFont;
+		private final Map<String, FontSetting> fields;
+		/** 欄位名稱對應字型，由 TextFiled id 拆開建立 */
+		private final Map<String, FontSetting> fieldIndex;
+
+		private TextFieldsConfig(Map<String, Object> cfg) throws Exception {
+			FontSetting library = new FontSetting(DEFAULT_FONT_NAME, DEFAULT_FONT_SIZE, DEFAULT_FONT_STYLE,
+					DEFAULT_FONT_COLOR);
+			this.defaultFont = FontSetting.parse(cfg, library, DEFAULT_FONT_NAME);
+
+			TreeMap<String, FontSetting> fields = new TreeMap<String, FontSetting>();
+			for (Map.Entry<String, Object> entry : cfg.entrySet()) {
+				if (entry.getValue() instanceof Map)
+					fields.put(entry.getKey(),
+							FontSetting.parse(map(entry.getValue()), defaultFont, defaultFont.getFontName()));
+			}
+			this.fields = Collections.unmodifiableMap(fields);
+
+			// 多 id 以","分隔，同一 id 出現在多個設定時以第一個為準
+			HashMap<String, FontSetting> fieldIndex = new HashMap<String, FontSetting>();
+			for (Map.Entry<String, FontSetting> entry : fields.entrySet()) {
+				for (String id : entry.getKey().split(",")) {
+					if (!id.trim().isEmpty())
+						fieldIndex.putIfAbsent(id.trim(), entry.getValue());
+				}
+			}
+			this.fieldIndex = Collections.unmodifiableMap(fieldIndex);
+		}
+
+		/**
+		 * 取欄位指定的字型
+		 *
+		 * @param name - 欄位名稱
+		 * @return 欄位指定的字型，沒有指定時為 null
+		 */
+		public FontSetting getField(String name) {
+			return fieldIndex.get(name);
+		}
+
+		/**
+		 * 取表單欄位用到的所有字型，預設字型在前，依序不重複
+		 *
+		 * @return
+		 */
+		public Set<String> getSubstitutionFontNames() {
+			LinkedHashSet<String> names = new LinkedHashSet<String>(
+					FontResolver.splitFontNames(defaultFont.getFontName()));
+			for (FontSetting font : fields.values())
+				names.addAll(FontResolver.splitFontNames(font.getFontName()));
+			return names;
+		}
+
+		/**
+		 * 取表單預設字型
+		 *
+		 * @return
+		 */
+		public FontSetting getDefaultFont() {
+			return defaultFont;
+		}
+
+		/**
+		 * 取有指定字型的欄位，key 為 TextFiled id，多 id 以","分隔
+		 *
+		 * @return
+		 */
+		public Map<String, FontSetting> getFields() {
+			return fields;
+		}
+	}
+
+	/**
+	 * Barcode 欄位設定
+	 *
+	 */
+	public static final class BarcodeFieldConfig {
+		private final String barcodeFormat;
+		private final String codeType;
+		private final Color barColor;
+		private final Float barcodeHeight;
+		private final boolean altText;
+		private final Color textColor;
+		private final float textFontSize;
+		private final int textAlignment;
+		private final float baseline;
+		private final boolean startStopText;
+
+		private BarcodeFieldConfig(Map<String, Object> cfg, FontSetting textFont) throws Exception {
+			this.barcodeFormat = text(cfg, "BarcodeFormat");
+			this.codeType = text(cfg, "CodeType");
+			this.barColor = StyleValues.getColorValues(text(cfg, "BarColor"), textFont.getFontColor());
+			this.barcodeHeight = floatValue(cfg, "BarcodeHeight");
+			this.altText = "true".equals(text(cfg, "AltText"));
+			this.textColor = StyleValues.getColorValues(text(cfg, "TextColor"), textFont.getFontColor());
+			Float textFontSize = floatValue(cfg, "TextFontSize");
+			this.textFontSize = textFontSize == null ? DEFAULT_BARCODE_TEXT_SIZE : textFontSize;
+			this.textAlignment = StyleValues.getVerticalAlignValues(text(cfg, "TextAlignment"), DEFAULT_VALIGN);
+			Float baseline = floatValue(cfg, "Baseline");
+			this.baseline = baseline == null ? DEFAULT_BARCODE_BASELINE : baseline;
+			this.startStopText = "true".equals(text(cfg, "StartStopText"));
+		}
+
+		/**
+		 * 取條碼格式，ex: Barcode39、Barcode128...
+		 *
+		 * @return
+		 */
+		public String getBarcodeFormat() {
+			return barcodeFormat;
+		}
+
+		public String getCodeType() {
+			return codeType;
+		}
+
+		/**
+		 * 取條碼顏色
+		 *
+		 * @return
+		 */
+		public Color getBarColor() {
+			return barColor;
+		}
+
+		/**
+		 * 取條碼高度，null 表示依欄位高度
+		 *
+		 * @return
+		 */
+		public Float getBarcodeHeight() {
+			return barcodeHeight;
+		}
+
+		/**
+		 * 是否顯示 AltText
+		 *
+		 * @return
+		 */
+		public boolean isAltText() {
+			return altText;
+		}
+
+		/**
+		 * 取 AltText 顏色
+		 *
+		 * @return
+		 */
+		public Color getTextColor() {
+			return textColor;
+		}
+
+		/**
+		 * 取 AltText 字型大小
+		 *
+		 * @return
+		 */
+		public float getTextFontSize() {
+			return textFontSize;
+		}
+
+		/**
+		 * 取 AltText 對齊
+		 *
+		 * @return
+		 */
+		public int getTextAlignment() {
+			return textAlignment;
+		}
+
+		/**
+		 * 取條碼與數字間距
+		 *
+		 * @return
+		 */
+		public float getBaseline() {
+			return baseline;
+		}
+
+		/**
+		 * AltText 是否顯示星號'*'
+		 *
+		 * @return
+		 */
+		public boolean isStartStopText() {
+			return startStopText;
+		}
+	}
+
+	/**
+	 * Qrcode 欄位設定
+	 *
+	 */
+	public static final class QrcodeFieldConfig {
+		private final String barcodeFormat;
+		private final BarcodeFormat format;
+		private final Float height;
+		private final Float width;
+		private final ErrorCorrectionLevel errorCorrectionLevel;
+		private final Integer rectangleMargin;
+		private final boolean vector;
+
+		private QrcodeFieldConfig(Map<String, Object> cfg) throws NoSuchFieldException {
+			this.barcodeFormat = text(cfg, "BarcodeFormat");
+			this.format = StyleValues.getBarcodeFormat(barcodeFormat);
+			this.height = floatValue(cfg, "Height");
+			this.width = floatValue(cfg, "Width");
+			this.errorCorrectionLevel = StyleValues.getErrorCorrectionLevel(text(cfg, "ErrorCorrectionLevel"));
+			this.rectangleMargin = intValue(cfg, "RectangleMargin");
+			// 未設定時 QR_CODE 以圖片繪製，PDF_417、DATA_MATRIX 以向量圖形繪製
+			this.vector = StyleValues.isVectorRenderMode(text(cfg, "RenderMode"), format);
+		}
+
+		/**
+		 * 取格式，QR_CODE、PDF_417、DATA_MATRIX
+		 *
+		 * @return
+		 */
+		public String getBarcodeFormat() {
+			return barcodeFormat;
+		}
+
+		/**
+		 * 取 zxing 的格式，未設定時為 QR_CODE
+		 *
+		 * @return
+		 */
+		public BarcodeFormat getFormat() {
+			return format;
+		}
+
+		public Float getHeight() {
+			return height;
+		}
+
+		public Float getWidth() {
+			return width;
+		}
+
+		/**
+		 * 取容錯等級
+		 *
+		 * @return
+		 */
+		public ErrorCorrectionLevel getErrorCorrectionLevel() {
+			return errorCorrectionLevel;
+		}
+
+		/**
+		 * 取白邊，0 表示去除白邊，null 表示未設定
+		 *
+		 * @return
+		 */
+		public Integer getRectangleMargin() {
+			return rectangleMargin;
+		}
+
+		/**
+		 * 是否以向量圖形繪製，RenderMode 為 VECTOR 時為 true；未設定時 QR_CODE 以圖片繪製，PDF_417、DATA_MATRIX 以向量圖形繪製
+		 *
+		 * @return
+		 */
+		public boolean isVector() {
+			return vector;
+		}
+	}
+
+	/**
+	 * 圖片欄位設定
+	 *
+	 */
+	public static final class ImageFieldConfig {
+		private final Float positionX;
+		private final Float positionY;
+
+		private ImageFieldConfig(Map<String, Object> cfg) {
+			this.positionX = floatValue(cfg, "PositionX");
+			this.positionY = floatValue(cfg, "PositionY");
+		}
+
+		/**
+		 * 取相對左下角位置 X
+		 *
+		 * @return
+		 */
+		public Float getPositionX() {
+			return positionX;
+		}
+
+		/**
+		 * 取相對左下角位置 Y
+		 *
+		 * @return
+		 */
+		public Float getPositionY() {
+			return positionY;
+		}
+	}
+
+	/**
+	 * 表格欄位設定
+	 *
+	 */
+	public static final class TableFieldConfig {
+		private final FontSetting font;
+		private final CellSetting cell;
+		private final Map<String, ColumnConfig> columns;
+		private final ColumnConfig defaultColumn;
+
+		private TableFieldConfig(Map<String, Object> cfg, FontSetting textFont) throws Exception {
+			this.font = FontSetting.parse(cfg, textFont, textFont.getFontName());
+			this.cell = CellSetting.parse(cfg, font.getFontColor());
+
+			TreeMap<String, ColumnConfig> columns = new TreeMap<String, ColumnConfig>();
+			for (Map.Entry<String, Object> entry : cfg.entrySet()) {
+				if (entry.getValue() instanceof Map)
+					columns.put(entry.getKey(), new ColumnConfig(map(entry.getValue()), font));
+			}
+			this.columns = Collections.unmodifiableMap(columns);
+			this.defaultColumn = new ColumnConfig(Collections.<String, Object>emptyMap(), font);
+		}
+
+		/**
+		 * 取表格預設字型
+		 *
+		 * @return
+		 */
+		public FontSetting getFont() {
+			return font;
+		}
+
+		/**
+		 * 取表格單元格風格
+		 *
+		 * @return
+		 */
+		public CellSetting getCell() {
+			return cell;
+		}
+
+		/**
+		 * 取表格行欄位設定
+		 *
+		 * @return
+		 */
+		public Map<String, ColumnConfig> getColumns() {
+			return columns;
+		}
+
+		/**
+		 * 取表格行欄位設定，未設定者採用預設值
+		 *
+		 * @param id - 行欄位名稱
+		 * @return
+		 */
+		public ColumnConfig getColumn(String id) {
+			ColumnConfig column = columns.get(id);
+			return column == null ? defaultColumn : column;
+		}
+	}
+
+	/**
+	 * 表格行欄位設定
+	 *
+	 */
+	public static final class ColumnConfig {
+		private final String colTitle;
+		private final Float colWidth;
+		private final FontSetting titleFont;
+		private final CellSetting titleStyle;
+		private final FontSetting colFont;
+		private final CellSetting colStyle;
+
+		private ColumnConfig(Map<String, Object> cfg, FontSetting tableFont) throws Exception {
+			// 只取第1個字型
+			String fontName = FontResolver.splitFontNames(tableFont.getFontName()).get(0);
+			this.colTitle = StringUtils.defaultString(text(cfg, "ColTitle"));
+			this.colWidth = floatValue(cfg, "ColWidths");
+			this.titleFont = FontSetting.parse(section(cfg, "TitleFonts"), tableFont, fontName);
+			this.titleStyle = CellSetting.parse(section(cfg, "TitleStyles"), tableFont.getFontColor());
+			this.colFont = FontSetting.parse(section(cfg, "ColFonts"), tableFont, fontName);
+			this.colStyle = CellSetting.parse(section(cfg, "ColStyles"), tableFont.getFontColor());
+		}
+
+		/**
+		 * 取表格行抬頭
+		 *
+		 * @return
+		 */
+		public String getColTitle() {
+			return colTitle;
+		}
+
+		/**
+		 * 取表格行寬，null 表示平均分配
+		 *
+		 * @return
+		 */
+		public Float getColWidth() {
+			return colWidth;
+		}
+
+		/**
+		 * 取抬頭字型
+		 *
+		 * @return
+		 */
+		public FontSetting getTitleFont() {
+			return titleFont;
+		}
+
+		/**
+		 * 取抬頭單元格風格
+		 *
+		 * @return
+		 */
+		public CellSetting getTitleStyle() {
+			return titleStyle;
+		}
+
+		/**
+		 * 取表體字型
+		 *
+		 * @return
+		 */
+		public FontSetting getColFont() {
+			return colFont;
+		}
+
+		/**
+		 * 取表體單元格風格
+		 *
+		 * @return
+		 */
+		public CellSetting getColStyle() {
+			return colStyle;
+		}
+	}
+}
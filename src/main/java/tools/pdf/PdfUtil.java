@@ -10,7 +10,6 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Properties;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -483,7 +482,7 @@ public class PdfUtil {
     }
 
     private static BaseFont getBaseFont(String fontName) throws Exception {
-        return BaseFont.createFont(getFontPath(fontName), BaseFont.IDENTITY_H, BaseFont.NOT_EMBEDDED);
+        return BaseFontCache.getDefault().get(getFontPath(fontName), BaseFont.IDENTITY_H, BaseFont.NOT_EMBEDDED);
     }
 
     /**
@@ -498,19 +497,12 @@ public class PdfUtil {
      * @throws Exception
      */
     public static Font createFontStyle(String fontName, int fontSize, int fontStyle, Color fontColor) throws Exception {
-        BaseFont bf = BaseFont.createFont(getFontPath(fontName), BaseFont.IDENTITY_H, BaseFont.NOT_EMBEDDED);
+        BaseFont bf = BaseFontCache.getDefault().get(getFontPath(fontName), BaseFont.IDENTITY_H, BaseFont.NOT_EMBEDDED);
         return new Font(bf, fontSize, fontStyle, fontColor);
     }
 
     private static String getFontPath(String fontName) {
-        String fontPath = "C:\\Windows\\Fonts\\" + fontName;
-
-        Properties prop = System.getProperties();
-        String osName = prop.getProperty("os.name").toLowerCase();
-        if (osName.indexOf("linux") > -1) {
-            fontPath = "/usr/share/fonts/" + fontName;
-        }
-        return fontPath;
+        return FontResolver.getDefault().resolve(fontName);
     }
 
     private static PdfGState getPdfGState(float Opacity) {
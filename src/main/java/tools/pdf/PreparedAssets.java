@@ -0,0 +1,83 @@
+package tools.pdf;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 一筆資料預先產生的條碼、二維碼及圖片<br>
+ * 編碼、解碼及縮放由執行緒池產生，PdfStamper 所在的執行緒只放置產生好的物件；<br>
+ * 放置時尚未開始產生的項目由放置的執行緒直接產生，不等待執行緒池排程，執行緒池與批次共用也不會互相等待。
+ *
+ */
+final class PreparedAssets {
+	// 每個欄位依條碼、二維碼、圖片各保留一個位置，同名欄位出現在不同類別時互不影響
+	private static final int KINDS = ExportRequest.IMAGE - ExportRequest.BARCODE + 1;
+
+	private final Executor executor;
+	private final FutureTask<?>[] tasks;
+
+	/**
+	 * @param executor - 產生的執行緒池
+	 * @param fields   - 範本欄位數
+	 */
+	PreparedAssets(Executor executor, int fields) {
+		this.executor = executor;
+		this.tasks = new FutureTask<?>[fields * KINDS];
+	}
+
+	/**
+	 * 交由執行緒池產生，執行緒池拒絕時於放置時產生
+	 *
+	 * @param kind   - ExportRequest.BARCODE、QRCODE 或 IMAGE
+	 * @param slot   - 欄位序號
+	 * @param loader - 產生
+	 */
+	void submit(int kind, int slot, Callable<?> loader) {
+		FutureTask<?> task = new FutureTask<>(loader);
+		tasks[slot * KINDS + kind - ExportRequest.BARCODE] = task;
+		try {
+			executor.execute(task);
+		} catch (RejectedExecutionException e) {
+			// 由放置的執行緒產生
+		}
+	}
+
+	/**
+	 * 取產生的結果，尚未開始時直接產生，產生中時等待完成
+	 *
+	 * @param kind - ExportRequest.BARCODE、QRCODE 或 IMAGE
+	 * @param slot - 欄位序號
+	 * @return 沒有預先產生時為 null
+	 * @throws Exception 產生時的錯誤
+	 */
+	Object get(int kind, int slot) throws Exception {
+		FutureTask<?> task = tasks[slot * KINDS + kind - ExportRequest.BARCODE];
+		if (task == null)
+			return null;
+		// 已開始或已完成時 run() 不做任何事
+		task.run();
+		try {
+			return task.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception)
+				throw (Exception) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw e;
+		}
+	}
+
+	/**
+	 * 取消尚未完成的項目，匯出失敗時呼叫
+	 */
+	void cancel() {
+		for (FutureTask<?> task : tasks) {
+			if (task != null)
+				task.cancel(false);
+		}
+	}
+}
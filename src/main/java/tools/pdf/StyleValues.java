@@ -0,0 +1,257 @@
+package tools.pdf;
+
+import java.awt.Color;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.Rectangle;
+
+/**
+ * 設定值轉換，將設定檔中的顏色、對齊、字體風格、邊框等名稱轉為對應的常數值<br>
+ * 名稱對應的常數值預先建立為查詢表，不使用反射；相同的顏色共用同一個 Color 物件。
+ *
+ */
+final class StyleValues {
+	/** java.awt.Color 的顏色名稱 */
+	private static final Map<String, Color> COLORS;
+	/** com.lowagie.text.Element 的對齊名稱 */
+	private static final Map<String, Integer> ALIGNS;
+	/** com.lowagie.text.Font 的字體風格名稱 */
+	private static final Map<String, Integer> FONT_STYLES;
+	/** com.lowagie.text.Rectangle 的邊框名稱 */
+	private static final Map<String, Integer> BORDERS;
+	/** 以 "r,g,b" 表示的顏色，依 RGB 值共用 */
+	private static final ConcurrentHashMap<Integer, Color> rgbColors = new ConcurrentHashMap<Integer, Color>();
+
+	static {
+		Map<String, Color> colors = new HashMap<String, Color>();
+		colors.put("white", Color.white);
+		colors.put("WHITE", Color.WHITE);
+		colors.put("lightGray", Color.lightGray);
+		colors.put("LIGHT_GRAY", Color.LIGHT_GRAY);
+		colors.put("gray", Color.gray);
+		colors.put("GRAY", Color.GRAY);
+		colors.put("darkGray", Color.darkGray);
+		colors.put("DARK_GRAY", Color.DARK_GRAY);
+		colors.put("black", Color.black);
+		colors.put("BLACK", Color.BLACK);
+		colors.put("red", Color.red);
+		colors.put("RED", Color.RED);
+		colors.put("pink", Color.pink);
+		colors.put("PINK", Color.PINK);
+		colors.put("orange", Color.orange);
+		colors.put("ORANGE", Color.ORANGE);
+		colors.put("yellow", Color.yellow);
+		colors.put("YELLOW", Color.YELLOW);
+		colors.put("green", Color.green);
+		colors.put("GREEN", Color.GREEN);
+		colors.put("magenta", Color.magenta);
+		colors.put("MAGENTA", Color.MAGENTA);
+		colors.put("cyan", Color.cyan);
+		colors.put("CYAN", Color.CYAN);
+		colors.put("blue", Color.blue);
+		colors.put("BLUE", Color.BLUE);
+		COLORS = Collections.unmodifiableMap(colors);
+		for (Color color : colors.values())
+			rgbColors.putIfAbsent(color.getRGB(), color);
+
+		Map<String, Integer> aligns = new HashMap<String, Integer>();
+		aligns.put("ALIGN_UNDEFINED", Element.ALIGN_UNDEFINED);
+		aligns.put("ALIGN_LEFT", Element.ALIGN_LEFT);
+		aligns.put("ALIGN_CENTER", Element.ALIGN_CENTER);
+		aligns.put("ALIGN_RIGHT", Element.ALIGN_RIGHT);
+		aligns.put("ALIGN_JUSTIFIED", Element.ALIGN_JUSTIFIED);
+		aligns.put("ALIGN_TOP", Element.ALIGN_TOP);
+		aligns.put("ALIGN_MIDDLE", Element.ALIGN_MIDDLE);
+		aligns.put("ALIGN_BOTTOM", Element.ALIGN_BOTTOM);
+		aligns.put("ALIGN_BASELINE", Element.ALIGN_BASELINE);
+		aligns.put("ALIGN_JUSTIFIED_ALL", Element.ALIGN_JUSTIFIED_ALL);
+		ALIGNS = Collections.unmodifiableMap(aligns);
+
+		Map<String, Integer> fontStyles = new HashMap<String, Integer>();
+		fontStyles.put("NORMAL", Font.NORMAL);
+		fontStyles.put("BOLD", Font.BOLD);
+		fontStyles.put("ITALIC", Font.ITALIC);
+		fontStyles.put("UNDERLINE", Font.UNDERLINE);
+		fontStyles.put("STRIKETHRU", Font.STRIKETHRU);
+		fontStyles.put("BOLDITALIC", Font.BOLDITALIC);
+		fontStyles.put("UNDEFINED", Font.UNDEFINED);
+		FONT_STYLES = Collections.unmodifiableMap(fontStyles);
+
+		Map<String, Integer> borders = new HashMap<String, Integer>();
+		borders.put("UNDEFINED", Rectangle.UNDEFINED);
+		borders.put("TOP", Rectangle.TOP);
+		borders.put("BOTTOM", Rectangle.BOTTOM);
+		borders.put("LEFT", Rectangle.LEFT);
+		borders.put("RIGHT", Rectangle.RIGHT);
+		borders.put("NO_BORDER", Rectangle.NO_BORDER);
+		borders.put("BOX", Rectangle.BOX);
+		BORDERS = Collections.unmodifiableMap(borders);
+	}
+
+	private StyleValues() {
+	}
+
+	/**
+	 * 取得顏色，名稱參考 java.awt.Color，或以 "r,g,b" 表示
+	 *
+	 * @param Colors       - 顏色名稱
+	 * @param defaultColor - 未設定時的預設值
+	 * @return
+	 * @throws NoSuchFieldException 不支援的顏色名稱
+	 */
+	static Color getColorValues(String Colors, Color defaultColor) throws NoSuchFieldException {
+		if (StringUtils.isEmpty(Colors))
+			return defaultColor;
+
+		String ColorArray[] = Colors.split(",");
+		if (ColorArray.length == 3) {
+			int r = Integer.parseInt(ColorArray[0].trim());
+			int g = Integer.parseInt(ColorArray[1].trim());
+			int b = Integer.parseInt(ColorArray[2].trim());
+			Color color = new Color(r, g, b);
+			Color exists = rgbColors.putIfAbsent(color.getRGB(), color);
+			return exists == null ? color : exists;
+		}
+		Color color = COLORS.get(Colors.trim());
+		if (color == null)
+			throw new NoSuchFieldException(Colors.trim());
+		return color;
+	}
+
+	/**
+	 * 取得水平對齊方式，名稱參考 com.lowagie.text.Element，多個以"|"或"/"分隔
+	 *
+	 * @param Elements     - 對齊名稱
+	 * @param defaultValue - 未設定時的預設值
+	 * @return
+	 * @throws NoSuchFieldException 不支援的名稱
+	 */
+	static int getHorizontalAlignValues(String Elements, int defaultValue) throws NoSuchFieldException {
+		return getConstantValues(ALIGNS, Elements, defaultValue);
+	}
+
+	/**
+	 * 取得垂直對齊方式，名稱參考 com.lowagie.text.Element，多個以"|"或"/"分隔
+	 *
+	 * @param Elements     - 對齊名稱
+	 * @param defaultValue - 未設定時的預設值
+	 * @return
+	 * @throws NoSuchFieldException 不支援的名稱
+	 */
+	static int getVerticalAlignValues(String Elements, int defaultValue) throws NoSuchFieldException {
+		return getConstantValues(ALIGNS, Elements, defaultValue);
+	}
+
+	/**
+	 * 取得字體風格，名稱參考 com.lowagie.text.Font，多個以"|"或"/"分隔
+	 *
+	 * @param Fonts        - 字體風格名稱
+	 * @param defaultValue - 未設定時的預設值
+	 * @return
+	 * @throws NoSuchFieldException 不支援的名稱
+	 */
+	static int getFontStyleValues(String Fonts, int defaultValue) throws NoSuchFieldException {
+		return getConstantValues(FONT_STYLES, Fonts, defaultValue);
+	}
+
+	/**
+	 * 取得邊框，名稱參考 com.lowagie.text.Rectangle，多個以"|"或"/"分隔
+	 *
+	 * @param Rectangles   - 邊框名稱
+	 * @param defaultValue - 未設定時的預設值
+	 * @return
+	 * @throws NoSuchFieldException 不支援的名稱
+	 */
+	static int getRectangleValues(String Rectangles, int defaultValue) throws NoSuchFieldException {
+		return getConstantValues(BORDERS, Rectangles, defaultValue);
+	}
+
+	/**
+	 * 取得二維碼容錯等級，L、M、Q、H，未設定時為 M
+	 *
+	 * @param Level - 容錯等級
+	 * @return
+	 */
+	static ErrorCorrectionLevel getErrorCorrectionLevel(String Level) {
+		String[] LevelArray = { "M", "L", "H", "Q" };
+		int i = 0;
+		if (StringUtils.isEmpty(Level))
+			return ErrorCorrectionLevel.forBits(i);
+		for (String level : LevelArray) {
+			if (level.equalsIgnoreCase(Level)) {
+				break;
+			}
+			i++;
+		}
+		return ErrorCorrectionLevel.forBits(i);
+	}
+
+	/**
+	 * 取得二維碼格式，QR_CODE、PDF_417、DATA_MATRIX，未設定時為 QR_CODE
+	 *
+	 * @param Format - 格式名稱
+	 * @return
+	 * @throws NoSuchFieldException 不支援的格式
+	 */
+	static BarcodeFormat getBarcodeFormat(String Format) throws NoSuchFieldException {
+		if (StringUtils.isEmpty(Format))
+			return BarcodeFormat.QR_CODE;
+		String name = Format.trim().toUpperCase();
+		if (BarcodeFormat.QR_CODE.name().equals(name))
+			return BarcodeFormat.QR_CODE;
+		if (BarcodeFormat.PDF_417.name().equals(name))
+			return BarcodeFormat.PDF_417;
+		if (BarcodeFormat.DATA_MATRIX.name().equals(name))
+			return BarcodeFormat.DATA_MATRIX;
+		throw new NoSuchFieldException(Format.trim());
+	}
+
+	/**
+	 * 取得二維碼是否以向量圖形繪製，RASTER：圖片，VECTOR：向量圖形，未設定時 QR_CODE 為 RASTER，PDF_417、DATA_MATRIX 為 VECTOR
+	 *
+	 * @param RenderMode - 繪製方式
+	 * @param format     - 二維碼格式
+	 * @return
+	 * @throws NoSuchFieldException 不支援的繪製方式
+	 */
+	static boolean isVectorRenderMode(String RenderMode, BarcodeFormat format) throws NoSuchFieldException {
+		if (StringUtils.isEmpty(RenderMode))
+			return format != BarcodeFormat.QR_CODE;
+		String name = RenderMode.trim().toUpperCase();
+		if ("VECTOR".equals(name))
+			return true;
+		if ("RASTER".equals(name))
+			return false;
+		throw new NoSuchFieldException(RenderMode.trim());
+	}
+
+	private static int getConstantValues(Map<String, Integer> constants, String Names, int defaultValue)
+			throws NoSuchFieldException {
+		if (StringUtils.isEmpty(Names))
+			return defaultValue;
+		int values = 0;
+		int start = 0;
+		int length = Names.length();
+		// 以"|"或"/"分隔，逐段查表後合併
+		for (int i = 0; i <= length; i++) {
+			if (i == length || Names.charAt(i) == '|' || Names.charAt(i) == '/') {
+				String Name = Names.substring(start, i).trim();
+				Integer value = constants.get(Name);
+				if (value == null)
+					throw new NoSuchFieldException(Name);
+				values = values | value;
+				start = i + 1;
+			}
+		}
+		return values;
+	}
+}
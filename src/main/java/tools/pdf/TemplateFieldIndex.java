@@ -0,0 +1,237 @@
+package tools.pdf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.lowagie.text.pdf.AcroFields;
+import com.lowagie.text.pdf.PdfArray;
+import com.lowagie.text.pdf.PdfDictionary;
+import com.lowagie.text.pdf.PdfName;
+import com.lowagie.text.pdf.PdfNumber;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.PdfRectangle;
+
+/**
+ * 範本欄位索引<br>
+ * 編譯範本時讀取一次表單欄位，保存欄位名稱對應的頁碼、位置、旗標及欄位型態，<br>
+ * 匯出時直接查詢，不需再由 AcroFields 取欄位的 Widget 及 Rect。<br>
+ * 每個欄位依名稱排序給予固定的序號(0 ~ size-1)，可作為陣列索引，ex: ExportRequest 以序號保存欄位值。
+ *
+ */
+public final class TemplateFieldIndex {
+	private static final TemplateFieldIndex EMPTY = new TemplateFieldIndex(Collections.<String, FieldInfo>emptyMap(),
+			new FieldInfo[0]);
+
+	private final Map<String, FieldInfo> fields;
+	/** 依序號排列的欄位 */
+	private final FieldInfo[] slots;
+
+	private TemplateFieldIndex(Map<String, FieldInfo> fields, FieldInfo[] slots) {
+		this.fields = fields;
+		this.slots = slots;
+	}
+
+	/**
+	 * 由範本建立欄位索引
+	 *
+	 * @param reader - 範本
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	static TemplateFieldIndex build(PdfReader reader) {
+		AcroFields acroFields = reader.getAcroFields();
+		// 依名稱排序，同一個範本每次建立的序號相同
+		Map<String, AcroFields.Item> items = new TreeMap<String, AcroFields.Item>(acroFields.getFields());
+		HashMap<String, FieldInfo> fields = new HashMap<String, FieldInfo>(items.size() * 2);
+		List<FieldInfo> slots = new ArrayList<FieldInfo>(items.size());
+		for (Map.Entry<String, AcroFields.Item> entry : items.entrySet()) {
+			String name = entry.getKey();
+			AcroFields.Item item = entry.getValue();
+			if (item.size() == 0)
+				continue;
+			// 同名欄位有多個 Widget 時，以第一個的位置為準
+			PdfDictionary widget = item.getWidget(0);
+			PdfArray rect = widget.getAsArray(PdfName.RECT);
+			if (rect == null || rect.size() < 4)
+				continue;
+			Integer page = item.getPage(0);
+			FieldInfo field = new FieldInfo(name, slots.size(), page == null ? 1 : page.intValue(),
+					acroFields.getFieldType(name), getInt(item.getMerged(0), PdfName.FF), getInt(widget, PdfName.F),
+					rect.getAsNumber(0).floatValue(), rect.getAsNumber(1).floatValue(),
+					rect.getAsNumber(2).floatValue(), rect.getAsNumber(3).floatValue());
+			fields.put(name, field);
+			slots.add(field);
+		}
+		return new TemplateFieldIndex(Collections.unmodifiableMap(fields), slots.toArray(new FieldInfo[0]));
+	}
+
+	/**
+	 * 沒有任何欄位的索引
+	 *
+	 * @return
+	 */
+	static TemplateFieldIndex empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * 取欄位資訊
+	 *
+	 * @param name - 欄位名稱
+	 * @return 欄位資訊，範本中沒有該欄位時為 null
+	 */
+	public FieldInfo get(String name) {
+		return fields.get(name);
+	}
+
+	/**
+	 * 依序號取欄位資訊
+	 *
+	 * @param index - 欄位序號，0 ~ size-1
+	 * @return
+	 */
+	public FieldInfo get(int index) {
+		return slots[index];
+	}
+
+	/**
+	 * 取欄位序號
+	 *
+	 * @param name - 欄位名稱
+	 * @return 欄位序號，範本中沒有該欄位時為 -1
+	 */
+	public int indexOf(String name) {
+		FieldInfo field = fields.get(name);
+		return field == null ? -1 : field.index;
+	}
+
+	/**
+	 * 範本中是否有該欄位
+	 *
+	 * @param name - 欄位名稱
+	 * @return
+	 */
+	public boolean contains(String name) {
+		return fields.containsKey(name);
+	}
+
+	/**
+	 * 取所有欄位名稱
+	 *
+	 * @return
+	 */
+	public Set<String> getNames() {
+		return fields.keySet();
+	}
+
+	public int size() {
+		return slots.length;
+	}
+
+	private static int getInt(PdfDictionary dict, PdfName key) {
+		if (dict == null)
+			return 0;
+		PdfNumber number = dict.getAsNumber(key);
+		return number == null ? 0 : number.intValue();
+	}
+
+	/**
+	 * 欄位資訊
+	 *
+	 */
+	public static final class FieldInfo {
+		private final String name;
+		private final int index;
+		private final int page;
+		private final int type;
+		private final int fieldFlags;
+		private final int widgetFlags;
+		private final float left;
+		private final float bottom;
+		private final float right;
+		private final float top;
+
+		private FieldInfo(String name, int index, int page, int type, int fieldFlags, int widgetFlags, float left,
+				float bottom, float right, float top) {
+			this.name = name;
+			this.index = index;
+			this.page = page;
+			this.type = type;
+			this.fieldFlags = fieldFlags;
+			this.widgetFlags = widgetFlags;
+			this.left = left;
+			this.bottom = bottom;
+			this.right = right;
+			this.top = top;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * 取欄位序號
+		 *
+		 * @return
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * 取欄位所在頁碼，由 1 開始
+		 *
+		 * @return
+		 */
+		public int getPage() {
+			return page;
+		}
+
+		/**
+		 * 取欄位型態，AcroFields.FIELD_TYPE_TEXT、AcroFields.FIELD_TYPE_CHECKBOX...
+		 *
+		 * @return
+		 */
+		public int getType() {
+			return type;
+		}
+
+		/**
+		 * 取欄位旗標(/Ff)，唯讀、必填、多行...
+		 *
+		 * @return
+		 */
+		public int getFieldFlags() {
+			return fieldFlags;
+		}
+
+		/**
+		 * 取 Widget 旗標(/F)，隱藏、列印...
+		 *
+		 * @return
+		 */
+		public int getWidgetFlags() {
+			return widgetFlags;
+		}
+
+		/**
+		 * 取欄位的位置(左下右上)，每次傳回新的物件
+		 *
+		 * @return
+		 */
+		public PdfRectangle getRectangle() {
+			return new PdfRectangle(left, bottom, right, top);
+		}
+
+		@Override
+		public String toString() {
+			return name + "[page=" + page + ", type=" + type + ", rect=(" + left + ", " + bottom + ") - (" + right
+					+ ", " + top + ")]";
+		}
+	}
+}
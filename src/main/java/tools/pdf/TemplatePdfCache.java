@@ -0,0 +1,183 @@
+package tools.pdf;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * 範本 PDF 快取<br>
+ * 將範本 PDF 的內容保存於記憶體，編譯範本時由快取取得，同一範本重新編譯時不需再讀取檔案。<br>
+ * 依檔案修改時間及大小判斷檔案是否變更，變更時重新讀取；總容量超過上限時移除最久未使用的範本。
+ *
+ */
+public final class TemplatePdfCache {
+	/** 預設容量上限 64MB */
+	public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+	private static final TemplatePdfCache defaultCache = new TemplatePdfCache(DEFAULT_MAX_BYTES);
+
+	private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<Path, Entry>(16, 0.75F, true);
+	private long maxBytes;
+	private long footprint;
+	private long hits;
+	private long misses;
+
+	/**
+	 * @param maxBytes - 容量上限(bytes)
+	 */
+	public TemplatePdfCache(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * 取共用的快取
+	 *
+	 * @return
+	 */
+	public static TemplatePdfCache getDefault() {
+		return defaultCache;
+	}
+
+	/**
+	 * 取範本內容，檔案變更時重新讀取
+	 *
+	 * @param template - 模版路徑檔名
+	 * @return 範本內容，範本不是一般檔案時為 null
+	 * @throws IOException
+	 */
+	public byte[] getBytes(String template) throws IOException {
+		if (StringUtils.isBlank(template))
+			return null;
+		Path path = Paths.get(template).toAbsolutePath().normalize();
+		if (!Files.isRegularFile(path))
+			return null;
+		BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+		long lastModified = attrs.lastModifiedTime().toMillis();
+
+		synchronized (this) {
+			Entry entry = entries.get(path);
+			if (entry != null && entry.lastModified == lastModified && entry.bytes.length == attrs.size()) {
+				hits++;
+				return entry.bytes;
+			}
+			misses++;
+		}
+
+		// 讀取檔案時不佔用鎖，其他範本的匯出不需等待
+		byte[] bytes = Files.readAllBytes(path);
+		synchronized (this) {
+			if (bytes.length <= maxBytes) {
+				Entry old = entries.put(path, new Entry(bytes, lastModified));
+				if (old != null)
+					footprint -= old.bytes.length;
+				footprint += bytes.length;
+				evict();
+			} else {
+				// 超過容量上限的範本不快取
+				remove(path);
+			}
+		}
+		return bytes;
+	}
+
+	/**
+	 * 移除範本的快取
+	 *
+	 * @param template - 模版路徑檔名
+	 */
+	public void invalidate(String template) {
+		if (StringUtils.isBlank(template))
+			return;
+		synchronized (this) {
+			remove(Paths.get(template).toAbsolutePath().normalize());
+		}
+	}
+
+	/**
+	 * 清除所有快取
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		footprint = 0;
+	}
+
+	/**
+	 * 設定容量上限，超過時立即移除最久未使用的範本
+	 *
+	 * @param maxBytes - 容量上限(bytes)
+	 */
+	public synchronized void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+		evict();
+	}
+
+	public synchronized long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * 取目前快取佔用的記憶體(bytes)<br>
+	 * 只計算快取中的範本；已移除的範本內容仍由使用中的 CompiledTemplate 保留，不計入此數值，實際佔用的記憶體可能較多
+	 *
+	 * @return
+	 */
+	public synchronized long getFootprint() {
+		return footprint;
+	}
+
+	/**
+	 * 取目前快取的範本數
+	 *
+	 * @return
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "TemplatePdfCache[size=" + entries.size() + ", footprint=" + footprint + ", maxBytes=" + maxBytes
+				+ ", hits=" + hits + ", misses=" + misses + "]";
+	}
+
+	private void remove(Path path) {
+		Entry old = entries.remove(path);
+		if (old != null)
+			footprint -= old.bytes.length;
+	}
+
+	private void evict() {
+		Iterator<Map.Entry<Path, Entry>> it = entries.entrySet().iterator();
+		while (footprint > maxBytes && it.hasNext()) {
+			footprint -= it.next().getValue().bytes.length;
+			it.remove();
+		}
+	}
+
+	/**
+	 * 快取的範本內容
+	 */
+	private static final class Entry {
+		private final byte[] bytes;
+		private final long lastModified;
+
+		private Entry(byte[] bytes, long lastModified) {
+			this.bytes = bytes;
+			this.lastModified = lastModified;
+		}
+	}
+}
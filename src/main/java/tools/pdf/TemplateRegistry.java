@@ -0,0 +1,307 @@
+package tools.pdf;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 範本登錄<br>
+ * 依名稱保存已編譯的範本，並以 WatchService 監看設定檔及 &lt;Template&gt; 指定的 PDF。<br>
+ * 檔案變更時於背景重新編譯，成功後以新版本整體替換；編譯失敗時保留原版本。<br>
+ * 匯出時取得的 CompiledTemplate(含範本 PDF 內容)不會再變更，進行中的匯出沿用原版本完成，不會因重新載入而等待。
+ *
+ */
+public final class TemplateRegistry implements Closeable {
+	private final static Logger logger = LoggerFactory.getLogger(TemplateRegistry.class);
+	/** 檔案變更後等待的時間，編輯器存檔時常連續觸發多個事件，合併為一次重新編譯 */
+	private static final long DEFAULT_RELOAD_DELAY_MILLIS = 200L;
+
+	private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+	/** 已監看的目錄 */
+	private final ConcurrentHashMap<Path, WatchKey> watchedDirs = new ConcurrentHashMap<Path, WatchKey>();
+	private final WatchService watchService;
+	private final ScheduledExecutorService reloader;
+	private final Thread watcher;
+	private final long reloadDelayMillis;
+	private volatile boolean closed;
+
+	public TemplateRegistry() throws IOException {
+		this(DEFAULT_RELOAD_DELAY_MILLIS);
+	}
+
+	/**
+	 * @param reloadDelayMillis - 檔案變更後延遲重新編譯的毫秒數
+	 * @throws IOException
+	 */
+	public TemplateRegistry(long reloadDelayMillis) throws IOException {
+		this.reloadDelayMillis = reloadDelayMillis;
+		this.watchService = FileSystems.getDefault().newWatchService();
+		this.reloader = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "pdf-template-reloader");
+			t.setDaemon(true);
+			return t;
+		});
+		this.watcher = new Thread(this::watch, "pdf-template-watcher");
+		this.watcher.setDaemon(true);
+		this.watcher.start();
+	}
+
+	/**
+	 * 登錄範本，立即編譯一次，之後設定檔或範本 PDF 變更時自動重新編譯
+	 *
+	 * @param name   - 範本名稱
+	 * @param config - 設定檔
+	 * @return 已編譯的範本
+	 * @throws Exception 編譯失敗
+	 */
+	public CompiledTemplate register(String name, PdfTemplateConfig config) throws Exception {
+		return register(name, config, null);
+	}
+
+	/**
+	 * 登錄範本，立即編譯一次，之後設定檔或範本 PDF 變更時自動重新編譯
+	 *
+	 * @param name     - 範本名稱
+	 * @param config   - 設定檔，可為 null
+	 * @param template - 模版路徑檔名，設定檔中有指定 &lt;Template&gt; 時優先採用
+	 * @return 已編譯的範本
+	 * @throws Exception 編譯失敗
+	 */
+	public CompiledTemplate register(String name, PdfTemplateConfig config, String template) throws Exception {
+		if (closed)
+			throw new IllegalStateException("TemplateRegistry closed");
+		if (StringUtils.isNotEmpty(template))
+			template = PdfTemplateExport.resolveTemplate(template);
+
+		Entry entry = new Entry(name, config, template);
+		CompiledTemplate compiled = CompiledTemplate.compile(config, template);
+		entry.current.set(compiled);
+		Entry previous = entries.put(name, entry);
+		watch(entry, compiled);
+		// 重新登錄同名範本時，取消原範本不再使用的目錄監看
+		if (previous != null) {
+			synchronized (watchedDirs) {
+				unwatch(previous.files);
+			}
+		}
+		return compiled;
+	}
+
+	/**
+	 * 取消登錄範本
+	 *
+	 * @param name - 範本名稱
+	 */
+	public void unregister(String name) {
+		Entry entry = entries.remove(name);
+		if (entry != null) {
+			synchronized (watchedDirs) {
+				unwatch(entry.files);
+			}
+		}
+	}
+
+	/**
+	 * 取範本目前的版本，取得後的內容不會因重新載入而改變
+	 *
+	 * @param name - 範本名稱
+	 * @return 已編譯的範本
+	 */
+	public CompiledTemplate get(String name) {
+		Entry entry = entries.get(name);
+		if (entry == null)
+			throw new IllegalArgumentException("Template [" + name + "] not registered!");
+		return entry.current.get();
+	}
+
+	/**
+	 * 以範本目前的版本建立匯出
+	 *
+	 * @param name - 範本名稱
+	 * @return
+	 */
+	public PdfTemplateExport newExport(String name) {
+		return new PdfTemplateExport(get(name));
+	}
+
+	/**
+	 * 立即重新編譯範本，編譯失敗時保留原版本並拋出例外
+	 *
+	 * @param name - 範本名稱
+	 * @return 新版本
+	 * @throws Exception
+	 */
+	public CompiledTemplate reload(String name) throws Exception {
+		Entry entry = entries.get(name);
+		if (entry == null)
+			throw new IllegalArgumentException("Template [" + name + "] not registered!");
+		return reload(entry);
+	}
+
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		reloader.shutdownNow();
+		watchService.close();
+		watchedDirs.clear();
+	}
+
+	private CompiledTemplate reload(Entry entry) throws Exception {
+		// 同一範本的編譯依序進行，避免較舊的結果覆蓋較新的版本
+		synchronized (entry) {
+			// 修改時間的精確度可能不足以分辨連續的存檔，重新編譯前先移除範本 PDF 的快取
+			TemplatePdfCache.getDefault().invalidate(entry.current.get().getTemplate());
+			CompiledTemplate compiled = CompiledTemplate.compile(entry.config, entry.template);
+			entry.current.set(compiled);
+			watch(entry, compiled);
+			logger.info("Template [" + entry.name + "] reloaded");
+			return compiled;
+		}
+	}
+
+	/**
+	 * 更新範本需要監看的檔案，範本 PDF 路徑可能隨設定檔變更
+	 */
+	private void watch(Entry entry, CompiledTemplate compiled) throws IOException {
+		Set<Path> files = new HashSet<Path>();
+		if (entry.config != null && StringUtils.isNotBlank(entry.config.getConfig()))
+			files.add(Paths.get(entry.config.getConfig()).toAbsolutePath().normalize());
+		if (StringUtils.isNotBlank(compiled.getTemplate()))
+			files.add(Paths.get(compiled.getTemplate()).toAbsolutePath().normalize());
+
+		// 與取消監看在同一個鎖內，目錄不會在其他範本登錄的同時被取消
+		synchronized (watchedDirs) {
+			Set<Path> previous = entry.files;
+			entry.files = Collections.unmodifiableSet(files);
+			for (Path file : files) {
+				Path dir = file.getParent();
+				if (dir == null || !Files.isDirectory(dir) || watchedDirs.containsKey(dir))
+					continue;
+				watchedDirs.put(dir, dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+						StandardWatchEventKinds.ENTRY_MODIFY));
+			}
+			// 範本 PDF 路徑隨設定檔變更時，原目錄可能已沒有範本使用
+			unwatch(previous);
+		}
+	}
+
+	/**
+	 * 取消已沒有範本使用的目錄監看，呼叫時需持有 watchedDirs 的鎖
+	 */
+	private void unwatch(Set<Path> files) {
+		for (Path file : files) {
+			Path dir = file.getParent();
+			if (dir == null || isWatched(dir))
+				continue;
+			WatchKey key = watchedDirs.remove(dir);
+			if (key != null)
+				key.cancel();
+		}
+	}
+
+	/**
+	 * 目錄下是否還有登錄的範本檔案
+	 */
+	private boolean isWatched(Path dir) {
+		for (Entry entry : entries.values()) {
+			for (Path file : entry.files) {
+				if (dir.equals(file.getParent()))
+					return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 監看執行緒，收到檔案變更事件後排程重新編譯
+	 */
+	private void watch() {
+		while (!closed) {
+			WatchKey key;
+			try {
+				key = watchService.take();
+			} catch (InterruptedException | ClosedWatchServiceException e) {
+				return;
+			}
+			Path dir = (Path) key.watchable();
+			for (WatchEvent<?> event : key.pollEvents()) {
+				if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+					// 事件遺失，該目錄下的範本全部重新編譯
+					for (Entry entry : entries.values()) {
+						for (Path file : entry.files) {
+							if (dir.equals(file.getParent())) {
+								scheduleReload(entry);
+								break;
+							}
+						}
+					}
+					continue;
+				}
+				Path changed = dir.resolve((Path) event.context());
+				for (Entry entry : entries.values()) {
+					if (entry.files.contains(changed))
+						scheduleReload(entry);
+				}
+			}
+			// 已取消的 key 不移除同一目錄之後重新登錄的 key
+			if (!key.reset())
+				watchedDirs.remove(dir, key);
+		}
+	}
+
+	private void scheduleReload(Entry entry) {
+		if (closed || !entry.pending.compareAndSet(false, true))
+			return;
+		reloader.schedule(() -> {
+			entry.pending.set(false);
+			if (entries.get(entry.name) != entry)
+				return;
+			try {
+				reload(entry);
+			} catch (Exception e) {
+				logger.error("Template [" + entry.name + "] reload failed, keep previous version: " + e.toString());
+			}
+		}, reloadDelayMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * 登錄的範本
+	 */
+	private static final class Entry {
+		private final String name;
+		private final PdfTemplateConfig config;
+		private final String template;
+		private final AtomicReference<CompiledTemplate> current = new AtomicReference<CompiledTemplate>();
+		/** 已排程重新編譯，尚未執行 */
+		private final AtomicBoolean pending = new AtomicBoolean();
+		/** 監看的檔案 */
+		private volatile Set<Path> files = Collections.emptySet();
+
+		private Entry(String name, PdfTemplateConfig config, String template) {
+			this.name = name;
+			this.config = config;
+			this.template = template;
+		}
+	}
+}
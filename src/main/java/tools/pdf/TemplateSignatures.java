@@ -0,0 +1,137 @@
+package tools.pdf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.lowagie.text.pdf.AcroFields;
+import com.lowagie.text.pdf.PdfPKCS7;
+import com.lowagie.text.pdf.PdfReader;
+
+/**
+ * 範本的簽章驗證結果<br>
+ * 同一版本的範本只驗證一次，結果保存在 CompiledTemplate，匯出時不需再做簽章的加解密運算。
+ *
+ */
+public final class TemplateSignatures {
+	private final static Logger logger = LoggerFactory.getLogger(TemplateSignatures.class);
+	private static final TemplateSignatures NONE = new TemplateSignatures(Collections.<Signature>emptyList());
+
+	private final List<Signature> signatures;
+
+	private TemplateSignatures(List<Signature> signatures) {
+		this.signatures = signatures;
+	}
+
+	/**
+	 * 驗證範本所有的簽署欄位
+	 *
+	 * @param template - 模版路徑檔名，記錄用
+	 * @param reader   - 範本，null 表示沒有範本
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	static TemplateSignatures verify(String template, PdfReader reader) {
+		if (reader == null)
+			return NONE;
+		AcroFields acroFields = reader.getAcroFields();
+		List<String> names = acroFields.getSignatureNames();
+		if (names.isEmpty())
+			return NONE;
+		List<Signature> signatures = new ArrayList<Signature>(names.size());
+		for (String name : names) {
+			boolean coversWholeDocument = acroFields.signatureCoversWholeDocument(name);
+			boolean verified;
+			try {
+				PdfPKCS7 pk = acroFields.verifySignature(name);
+				verified = pk.verify();
+			} catch (Exception e) {
+				logger.warn("Template [" + template + "] signature [" + name + "] verify failed: " + e.toString());
+				verified = false;
+			}
+			logger.info("Template [" + template + "] signature [" + name + "] covers whole document: "
+					+ coversWholeDocument + ", verifies: " + verified);
+			signatures.add(new Signature(name, coversWholeDocument, verified));
+		}
+		return new TemplateSignatures(Collections.unmodifiableList(signatures));
+	}
+
+	/**
+	 * 取所有簽署欄位的驗證結果
+	 *
+	 * @return
+	 */
+	public List<Signature> getSignatures() {
+		return signatures;
+	}
+
+	/**
+	 * 所有簽章都驗證成功且涵蓋整份文件，沒有簽章時為 true
+	 *
+	 * @return
+	 */
+	public boolean isValid() {
+		for (Signature signature : signatures) {
+			if (!signature.isValid())
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * 取第一個驗證失敗的簽章
+	 *
+	 * @return 都驗證成功時為 null
+	 */
+	public Signature getFirstInvalid() {
+		for (Signature signature : signatures) {
+			if (!signature.isValid())
+				return signature;
+		}
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		return "TemplateSignatures" + signatures;
+	}
+
+	/**
+	 * 單一簽署欄位的驗證結果
+	 */
+	public static final class Signature {
+		private final String name;
+		private final boolean coversWholeDocument;
+		private final boolean verified;
+
+		Signature(String name, boolean coversWholeDocument, boolean verified) {
+			this.name = name;
+			this.coversWholeDocument = coversWholeDocument;
+			this.verified = verified;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public boolean isCoversWholeDocument() {
+			return coversWholeDocument;
+		}
+
+		public boolean isVerified() {
+			return verified;
+		}
+
+		public boolean isValid() {
+			return verified && coversWholeDocument;
+		}
+
+		@Override
+		public String toString() {
+			return "[name=" + name + ", coversWholeDocument=" + coversWholeDocument + ", verified=" + verified + "]";
+		}
+	}
+}
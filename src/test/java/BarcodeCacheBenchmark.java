@@ -0,0 +1,57 @@
+import java.util.HashMap;
+import java.util.Map;
+
+import tools.pdf.BarcodeCache;
+import tools.pdf.PdfTemplateConfig;
+import tools.pdf.PdfTemplateExport;
+
+/**
+ * 二維碼快取效能比較：同一二維碼內容重複出現時，不快取 vs 快取，並列出命中率<br>
+ * 參數：筆數 [不同內容數]
+ */
+public class BarcodeCacheBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int distinct = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        String configFile = "config/PdfTemplateConfig-example.xml";
+
+        PdfTemplateExport export = new PdfTemplateExport(
+                new PdfTemplateConfig(configFile, PdfTemplateConfig.ResourceMode.CLASSPATH));
+        BarcodeCache cache = BarcodeCache.getDefault();
+
+        // 暖機
+        cache.setMaxBytes(0);
+        run(export, iterations, distinct);
+        cache.setMaxBytes(BarcodeCache.DEFAULT_MAX_BYTES);
+        run(export, iterations, distinct);
+
+        cache.setMaxBytes(0);
+        long start = System.nanoTime();
+        run(export, iterations, distinct);
+        long uncached = System.nanoTime() - start;
+
+        cache.setMaxBytes(BarcodeCache.DEFAULT_MAX_BYTES);
+        cache.clear();
+        long hits = cache.getHits();
+        long misses = cache.getMisses();
+        start = System.nanoTime();
+        run(export, iterations, distinct);
+        long cached = System.nanoTime() - start;
+
+        System.out.printf("no cache : %.2f ms/op%n", uncached / 1e6 / iterations);
+        System.out.printf("cache    : %.2f ms/op, hits %d, misses %d%n", cached / 1e6 / iterations,
+                cache.getHits() - hits, cache.getMisses() - misses);
+        System.out.println(cache);
+    }
+
+    private static void run(PdfTemplateExport export, int iterations, int distinct) throws Exception {
+        for (int i = 0; i < iterations; i++) {
+            Map<String, Object> textFields = new HashMap<String, Object>();
+            textFields.put("text1", "Statement " + i);
+            Map<String, Object> qrcodeFields = new HashMap<String, Object>();
+            qrcodeFields.put("qrcode1", "https://example.com/branch/" + (i % distinct));
+            export.export(textFields, null, qrcodeFields, null, null);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+import tools.pdf.ExportRequest;
+import tools.pdf.PdfTemplateConfig;
+import tools.pdf.PdfTemplateExport;
+
+/**
+ * 匯出資料效能比較：每筆建立 Map vs 重複使用 ExportRequest，比較每筆的時間及配置的記憶體<br>
+ * 參數：筆數
+ */
+public class ExportRequestBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        String configFile = "config/PdfTemplateConfig-example.xml";
+
+        PdfTemplateExport export = new PdfTemplateExport(
+                new PdfTemplateConfig(configFile, PdfTemplateConfig.ResourceMode.CLASSPATH));
+        ExportRequest request = export.newRequest();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // 暖機
+        for (int i = 0; i < iterations; i++) {
+            exportMaps(export, i);
+            exportRequest(export, request, out, i);
+        }
+
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+
+        long bytes = mx.getThreadAllocatedBytes(tid);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            exportMaps(export, i);
+        }
+        long mapTime = System.nanoTime() - start;
+        long mapBytes = mx.getThreadAllocatedBytes(tid) - bytes;
+
+        bytes = mx.getThreadAllocatedBytes(tid);
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            exportRequest(export, request, out, i);
+        }
+        long requestTime = System.nanoTime() - start;
+        long requestBytes = mx.getThreadAllocatedBytes(tid) - bytes;
+
+        System.out.printf("Map           : %.2f ms/op, %d KB/op%n", mapTime / 1e6 / iterations,
+                mapBytes / 1024 / iterations);
+        System.out.printf("ExportRequest : %.2f ms/op, %d KB/op%n", requestTime / 1e6 / iterations,
+                requestBytes / 1024 / iterations);
+    }
+
+    private static void exportMaps(PdfTemplateExport export, int n) throws Exception {
+        Map<String, Object> textFields = new HashMap<String, Object>();
+        textFields.put("text1", "Statement " + n);
+        Map<String, Object> barcodeFields = new HashMap<String, Object>();
+        barcodeFields.put("barcode1", String.valueOf(100000 + n));
+        Map<String, Object> qrcodeFields = new HashMap<String, Object>();
+        qrcodeFields.put("qrcode1", "https://example.com/statement/" + n);
+        export.export(textFields, barcodeFields, qrcodeFields, null, null);
+    }
+
+    private static void exportRequest(PdfTemplateExport export, ExportRequest request, ByteArrayOutputStream out,
+            int n) throws Exception {
+        request.clear()
+                .text("text1", "Statement " + n)
+                .barcode("barcode1", String.valueOf(100000 + n))
+                .qrcode("qrcode1", "https://example.com/statement/" + n);
+        out.reset();
+        export.export(out, request);
+    }
+}
@@ -0,0 +1,44 @@
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import tools.pdf.ExportRecord;
+
+/**
+ * 匯出測試共用的資料及輸出比較
+ *
+ */
+final class ExportTestSupport {
+    private static final Pattern MOD_DATE = Pattern.compile("D:\\d{14}[^)]*");
+    private static final Pattern XMP_DATE = Pattern.compile("\\d{4}-\\d{2}-\\d{2}T[0-9:.]+[^<]*");
+    private static final Pattern DOC_ID = Pattern.compile("/ID ?\\[<[0-9a-fA-F]*><[0-9a-fA-F]*>\\]");
+
+    private ExportTestSupport() {
+    }
+
+    /**
+     * 第 n 筆對帳單資料，文字、條碼及二維碼依 n 不同
+     */
+    static ExportRecord newRecord(long n) {
+        Map<String, Object> textFields = new HashMap<String, Object>();
+        textFields.put("text1", "Statement " + n);
+
+        Map<String, Object> barcodeFields = new HashMap<String, Object>();
+        barcodeFields.put("barcode1", String.valueOf(100000 + n));
+
+        Map<String, Object> qrcodeFields = new HashMap<String, Object>();
+        qrcodeFields.put("qrcode1", "https://example.com/statement/" + n);
+
+        return new ExportRecord(textFields, barcodeFields, qrcodeFields, null, null);
+    }
+
+    /**
+     * 去除每次匯出都不同的修改時間及文件 ID，長度不變，其餘內容應完全相同
+     */
+    static String normalize(byte[] pdf) {
+        String text = new String(pdf, StandardCharsets.ISO_8859_1);
+        return MOD_DATE.matcher(XMP_DATE.matcher(DOC_ID.matcher(text).replaceAll("/ID")).replaceAll("T"))
+                .replaceAll("D:");
+    }
+}
@@ -0,0 +1,93 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.LongStream;
+
+import tools.pdf.ExportRecord;
+import tools.pdf.PdfBatchExport;
+import tools.pdf.PdfTemplateConfig;
+import tools.pdf.PdfTemplateExport;
+
+/**
+ * 批次匯出測試，資料逐筆產生，觀察筆數增加時記憶體用量維持不變<br>
+ * 平行匯出時檢查輸出依資料順序，並列出各執行緒的匯出速度<br>
+ * 另檢查錯誤的資料在輪到該筆時才失敗，與是否預先產生條碼、二維碼及圖片無關<br>
+ * 參數：筆數 [執行緒數，0 表示不平行] [virtual]
+ */
+public class PdfBatchExportTest {
+
+    public static void main(String[] args) throws Exception {
+        final long count = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        boolean virtual = args.length > 2 && "virtual".equals(args[2]);
+        String configFile = "config/PdfTemplateConfig-example.xml";
+
+        PdfTemplateExport export = new PdfTemplateExport(
+                new PdfTemplateConfig(configFile, PdfTemplateConfig.ResourceMode.CLASSPATH));
+        PdfBatchExport batch = export.batch().setParallelism(threads).setVirtualThreads(virtual);
+
+        // 資料不預先建立，讀取時才產生
+        Iterator<ExportRecord> records = LongStream.range(0, count).mapToObj(ExportTestSupport::newRecord)
+                .iterator();
+
+        final long[] bytes = new long[1];
+        final long[] maxUsed = new long[1];
+        final long[] expectedIndex = new long[1];
+        final Runtime runtime = Runtime.getRuntime();
+        PdfBatchExport.RecordHandler handler = (index, record, pdf) -> {
+            if (index != expectedIndex[0]++)
+                throw new IllegalStateException("record " + index + " out of order");
+            bytes[0] += pdf.length;
+            if (index % 100 == 0)
+                maxUsed[0] = Math.max(maxUsed[0], runtime.totalMemory() - runtime.freeMemory());
+        };
+        long start = System.nanoTime();
+        long exported = threads > 0 ? batch.exportParallel(records, handler) : batch.export(records, handler);
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println(exported + " records, " + (elapsed / 1000000) + " ms, "
+                + String.format("%.2f", elapsed / 1e6 / exported) + " ms/record, " + (bytes[0] / 1024)
+                + " KB output, max heap used " + (maxUsed[0] / 1024 / 1024) + " MB");
+        for (PdfBatchExport.WorkerStats stats : batch.getWorkerStats())
+            System.out.println("  " + stats);
+        if (exported != count)
+            throw new IllegalStateException("exported " + exported + " of " + count);
+
+        // 錯誤的資料在輪到該筆時才失敗，前一筆已交給 handler，與是否預先產生無關
+        checkFailureIndex(export);
+        ExecutorService prepareExecutor = Executors.newFixedThreadPool(2);
+        try {
+            export.setPrepareExecutor(prepareExecutor);
+            checkFailureIndex(export);
+        } finally {
+            export.setPrepareExecutor(null);
+            prepareExecutor.shutdown();
+        }
+    }
+
+    /**
+     * 第 2 筆的圖片欄位型態錯誤，檢查第 1 筆已匯出並交給 handler 後才失敗
+     */
+    private static void checkFailureIndex(PdfTemplateExport export) throws Exception {
+        ExportRecord invalid = ExportTestSupport.newRecord(1);
+        Map<String, Object> imgFields = new HashMap<String, Object>();
+        imgFields.put("text1", Integer.valueOf(1));
+        invalid = new ExportRecord(invalid.getTextFields(), invalid.getBarcodeFields(), invalid.getQrcodeFields(),
+                imgFields, null);
+        List<Long> handled = new ArrayList<Long>();
+        try {
+            export.batch().export(
+                    Arrays.asList(ExportTestSupport.newRecord(0), invalid, ExportTestSupport.newRecord(2)),
+                    (index, record, pdf) -> handled.add(index));
+            throw new IllegalStateException("invalid image value not rejected");
+        } catch (IllegalArgumentException e) {
+            if (!handled.equals(Arrays.asList(0L)))
+                throw new IllegalStateException("records " + handled + " handled before the invalid record", e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+import java.io.FileOutputStream;
+import java.util.Iterator;
+import java.util.stream.LongStream;
+
+import com.lowagie.text.pdf.PdfReader;
+
+import tools.pdf.ExportRecord;
+import tools.pdf.PdfTemplateConfig;
+import tools.pdf.PdfTemplateExport;
+
+/**
+ * 合併匯出測試，所有資料輸出到 target/merged.pdf，與單筆匯出的大小比較共用的內容<br>
+ * 參數：筆數
+ */
+public class PdfMergeExportTest {
+
+    public static void main(String[] args) throws Exception {
+        final long count = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+        String maindir = System.getProperty("user.dir");
+        String configFile = "config/PdfTemplateConfig-example.xml";
+
+        PdfTemplateExport export = new PdfTemplateExport(
+                new PdfTemplateConfig(configFile, PdfTemplateConfig.ResourceMode.CLASSPATH));
+        ExportRecord first = ExportTestSupport.newRecord(0);
+        int single = export.export(first.getTextFields(), first.getBarcodeFields(), first.getQrcodeFields(), null,
+                null).size();
+
+        final Runtime runtime = Runtime.getRuntime();
+        final long[] maxUsed = new long[1];
+        // 資料讀取時才產生，並記錄記憶體用量
+        Iterator<ExportRecord> records = LongStream.range(0, count).mapToObj(n -> {
+            if (n % 100 == 0)
+                maxUsed[0] = Math.max(maxUsed[0], runtime.totalMemory() - runtime.freeMemory());
+            return ExportTestSupport.newRecord(n);
+        }).iterator();
+
+        String outputFile = maindir + "/target/merged.pdf";
+        long start = System.nanoTime();
+        long exported = export.exportMerged(records, new FileOutputStream(outputFile));
+        long elapsed = System.nanoTime() - start;
+
+        PdfReader reader = new PdfReader(outputFile);
+        int pages = reader.getNumberOfPages();
+        long size = reader.getFileLength();
+        reader.close();
+        System.out.println(exported + " records, " + pages + " pages, " + (elapsed / 1000000) + " ms, " + (size / 1024)
+                + " KB (" + (size / exported) + " bytes/record, single export " + single + " bytes), max heap used "
+                + (maxUsed[0] / 1024 / 1024) + " MB");
+        if (exported != count || pages != count)
+            throw new IllegalStateException("merged " + pages + " pages of " + count);
+    }
+}
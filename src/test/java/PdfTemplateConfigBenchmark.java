@@ -0,0 +1,108 @@
+
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.dom4j.Document;
+import org.dom4j.DocumentHelper;
+import org.dom4j.Element;
+
+import tools.pdf.PdfTemplateConfig;
+
+/**
+ * 設定檔讀取效能比較：單次 SAX 讀取 vs 原 validateByXsd → readXML → asXML → parseText → elementTomap
+ *
+ */
+public class PdfTemplateConfigBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String configFile = "config/PdfTemplateConfig-example.xml";
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+
+        PdfTemplateConfig config = new PdfTemplateConfig(configFile, PdfTemplateConfig.ResourceMode.CLASSPATH);
+
+        TreeMap<String, Object> expected = readByDom(config.getConfig());
+        TreeMap<String, Object> actual = config.readConfig();
+        if (!expected.equals(actual)) {
+            throw new IllegalStateException("Result mismatch\n" + expected + "\n" + actual);
+        }
+
+        // 暖機
+        for (int i = 0; i < iterations; i++) {
+            readByDom(config.getConfig());
+            config.readConfig();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            readByDom(config.getConfig());
+        }
+        long dom = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            config.readConfig();
+        }
+        long sax = System.nanoTime() - start;
+
+        System.out.printf("elementTomap: %.1f us/op%n", dom / 1000.0 / iterations);
+        System.out.printf("single pass : %.1f us/op%n", sax / 1000.0 / iterations);
+    }
+
+    /**
+     * 原讀取方式：驗證、讀取 Document、轉為 String 再解析
+     */
+    private static TreeMap<String, Object> readByDom(String configFile) throws Exception {
+        Map<String, Object> result = PdfTemplateConfig.validateByXsd(configFile, "config/PdfTemplateConfig.xsd");
+        if (!(boolean) result.get("Result")) {
+            throw new IllegalStateException((String) result.get("Description"));
+        }
+        String xml;
+        try (InputStream in = new FileInputStream(configFile)) {
+            xml = PdfTemplateConfig.readXML(in).asXML();
+        }
+        Document doc = DocumentHelper.parseText(xml);
+        TreeMap<String, Object> map = new TreeMap<String, Object>();
+        elementTomap(doc.getRootElement(), map);
+        return map;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TreeMap<String, Object> elementTomap(Element outele, TreeMap<String, Object> outmap) {
+        List<Element> list = outele.elements();
+        int size = list.size();
+        if (size == 0) {
+            String outname = outele.attributeValue("id") == null ? outele.getName() : outele.attributeValue("id");
+            outmap.put(outname, outele.getTextTrim());
+        } else {
+            TreeMap<String, Object> innermap = new TreeMap<String, Object>();
+            for (Element ele1 : list) {
+                String eleName = ele1.getName();
+
+                Object obj = innermap.get(eleName);
+                if (obj == null) {
+                    elementTomap(ele1, innermap);
+                } else {
+                    if (obj instanceof java.util.Map) {
+                        List<TreeMap<String, Object>> list1 = new ArrayList<TreeMap<String, Object>>();
+                        list1.add((TreeMap<String, Object>) innermap.remove(eleName));
+                        elementTomap(ele1, innermap);
+                        list1.add((TreeMap<String, Object>) innermap.remove(eleName));
+                        innermap.put(eleName, list1);
+                    } else {
+                        elementTomap(ele1, innermap);
+                        ((List<TreeMap<String, Object>>) obj).add(innermap);
+                    }
+                }
+            }
+
+            String outname = outele.attributeValue("id") == null ? outele.getName() : outele.attributeValue("id");
+            outmap.put(outname, innermap);
+        }
+        return outmap;
+    }
+}
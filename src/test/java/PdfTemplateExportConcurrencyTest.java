@@ -0,0 +1,95 @@
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import tools.pdf.PdfTemplateConfig;
+import tools.pdf.PdfTemplateExport;
+
+/**
+ * 多執行緒共用同一個 PdfTemplateExport 的壓力測試<br>
+ * 先以單一執行緒匯出每筆資料作為基準，再由多個執行緒同時匯出，比對每筆的內容與基準相同(不含時間及文件 ID)。<br>
+ * 參數：執行緒數 每執行緒筆數
+ */
+public class PdfTemplateExportConcurrencyTest {
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 25;
+        String configFile = "config/PdfTemplateConfig-example.xml";
+
+        final PdfTemplateExport export = new PdfTemplateExport(
+                new PdfTemplateConfig(configFile, PdfTemplateConfig.ResourceMode.CLASSPATH));
+
+        // 單一執行緒的基準
+        int total = threads * perThread;
+        String[] expected = new String[total];
+        for (int n = 0; n < total; n++)
+            expected[n] = ExportTestSupport.normalize(exportRecord(export, n));
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<byte[][]>> futures = new ArrayList<Future<byte[][]>>();
+        long t0 = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            final int first = t * perThread;
+            final int count = perThread;
+            futures.add(pool.submit(new Callable<byte[][]>() {
+                @Override
+                public byte[][] call() throws Exception {
+                    start.await();
+                    byte[][] results = new byte[count][];
+                    for (int i = 0; i < count; i++)
+                        results[i] = exportRecord(export, first + i);
+                    return results;
+                }
+            }));
+        }
+        start.countDown();
+
+        int failures = 0;
+        for (int t = 0; t < threads; t++) {
+            byte[][] results = futures.get(t).get();
+            for (int i = 0; i < results.length; i++) {
+                int n = t * perThread + i;
+                if (!expected[n].equals(ExportTestSupport.normalize(results[i]))) {
+                    failures++;
+                    System.out.println("record " + n + " mismatch: size=" + results[i].length + ", expected size="
+                            + expected[n].length());
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - t0;
+        pool.shutdown();
+
+        System.out.println(threads + " threads x " + perThread + " exports, " + (elapsed / 1000000) + " ms, "
+                + failures + " mismatches");
+        if (failures > 0)
+            throw new IllegalStateException(failures + " exports differ from single thread output");
+    }
+
+    /**
+     * 每筆資料的欄位值長度不同，樣式或二維碼尺寸被其他執行緒覆蓋時，輸出會與基準不同
+     */
+    private static byte[] exportRecord(PdfTemplateExport export, int n) throws Exception {
+        Map<String, Object> textFields = new HashMap<String, Object>();
+        textFields.put("text1", "Record " + n);
+
+        Map<String, Object> barcodeFields = new HashMap<String, Object>();
+        barcodeFields.put("barcode1", String.valueOf(10000 + n));
+
+        Map<String, Object> qrcodeFields = new HashMap<String, Object>();
+        StringBuilder payload = new StringBuilder("https://example.com/record/").append(n);
+        for (int i = 0; i < n % 7; i++)
+            payload.append("/segment").append(i);
+        qrcodeFields.put("qrcode1", payload.toString());
+
+        ByteArrayOutputStream bos = export.export(textFields, barcodeFields, qrcodeFields, null, null, null, null);
+        return bos.toByteArray();
+    }
+}
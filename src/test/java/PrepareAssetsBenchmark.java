@@ -0,0 +1,103 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.imageio.ImageIO;
+
+import tools.pdf.BarcodeCache;
+import tools.pdf.ExportRecord;
+import tools.pdf.PdfTemplateConfig;
+import tools.pdf.PdfTemplateExport;
+
+/**
+ * 預先產生條碼、二維碼及圖片的效能比較：於匯出的執行緒中產生 vs 交給執行緒池產生，分別比較單筆及批次匯出<br>
+ * 參數：筆數 [執行緒數]
+ */
+public class PrepareAssetsBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String configFile = "config/PdfTemplateConfig-example.xml";
+
+        PdfTemplateExport export = new PdfTemplateExport(
+                new PdfTemplateConfig(configFile, PdfTemplateConfig.ResourceMode.CLASSPATH));
+        // 每筆內容不同，不由二維碼快取取得
+        BarcodeCache.getDefault().setMaxBytes(0);
+        byte[] photo = createPhoto(1200, 800);
+        List<ExportRecord> records = new ArrayList<ExportRecord>();
+        for (int i = 0; i < iterations; i++)
+            records.add(createRecord(i, photo));
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // 暖機
+            run(export, records);
+            export.setPrepareExecutor(executor);
+            run(export, records);
+
+            export.setPrepareExecutor(null);
+            long inline = run(export, records);
+            long inlineBatch = runBatch(export, records);
+
+            export.setPrepareExecutor(executor);
+            long prepared = run(export, records);
+            long preparedBatch = runBatch(export, records);
+
+            System.out.printf("inline   : %.2f ms/op, batch %.2f ms/op%n", inline / 1e6 / iterations,
+                    inlineBatch / 1e6 / iterations);
+            System.out.printf("prepared : %.2f ms/op, batch %.2f ms/op (%d threads)%n", prepared / 1e6 / iterations,
+                    preparedBatch / 1e6 / iterations, threads);
+        } finally {
+            executor.shutdown();
+            BarcodeCache.getDefault().setMaxBytes(BarcodeCache.DEFAULT_MAX_BYTES);
+        }
+    }
+
+    private static long run(PdfTemplateExport export, List<ExportRecord> records) throws Exception {
+        long start = System.nanoTime();
+        for (ExportRecord record : records)
+            export.export(record.getTextFields(), record.getBarcodeFields(), record.getQrcodeFields(),
+                    record.getImgFields(), null);
+        return System.nanoTime() - start;
+    }
+
+    private static long runBatch(PdfTemplateExport export, List<ExportRecord> records) throws Exception {
+        long start = System.nanoTime();
+        export.batch().export(records, (index, record, pdf) -> {
+        });
+        return System.nanoTime() - start;
+    }
+
+    private static ExportRecord createRecord(int n, byte[] photo) {
+        Map<String, Object> barcodeFields = new HashMap<String, Object>();
+        barcodeFields.put("barcode1", String.valueOf(100000 + n));
+        Map<String, Object> qrcodeFields = new HashMap<String, Object>();
+        qrcodeFields.put("qrcode1", "https://example.com/statement/" + n);
+        Map<String, Object> imgFields = new HashMap<String, Object>();
+        imgFields.put("text1", photo);
+        return new ExportRecord(null, barcodeFields, qrcodeFields, imgFields, null);
+    }
+
+    private static byte[] createPhoto(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        for (int y = 0; y < height; y += 8) {
+            for (int x = 0; x < width; x += 8) {
+                g.setColor(new Color((x * 31 + y * 17) & 0xFFFFFF));
+                g.fillRect(x, y, 8, 8);
+            }
+        }
+        g.dispose();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", bos);
+        return bos.toByteArray();
+    }
+}
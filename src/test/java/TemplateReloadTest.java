@@ -0,0 +1,164 @@
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.lowagie.text.pdf.BaseFont;
+import com.lowagie.text.pdf.PdfContentByte;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.PdfStamper;
+
+import tools.pdf.CompiledTemplate;
+import tools.pdf.ExportRecord;
+import tools.pdf.PdfTemplateConfig;
+import tools.pdf.PdfTemplateExport;
+import tools.pdf.TemplateRegistry;
+
+/**
+ * 範本重新載入測試：批次匯出進行中修改範本 PDF，檢查批次的每筆輸出(逐筆、合併及平行)都採用開始時的版本，<br>
+ * 重新載入後的新匯出才採用新的版本<br>
+ * 參數：筆數
+ */
+public class TemplateReloadTest {
+    private static final long RELOAD_TIMEOUT_MILLIS = 10000L;
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+
+        Path dir = Files.createTempDirectory("pdf-template-reload");
+        Path template = dir.resolve("PdfTemplate.pdf");
+        Path config = dir.resolve("PdfTemplateConfig.xml");
+        byte[] original = readResource("PdfTemplate.pdf");
+        Files.write(template, original);
+        // 設定檔改為指向暫存目錄的範本
+        String xml = new String(readResource("config/PdfTemplateConfig-example.xml"), StandardCharsets.UTF_8)
+                .replaceFirst("(?s)<Template>.*?</Template>", "<Template>file:"
+                        + template.toString().replace("\\", "/") + "</Template>");
+        Files.write(config, xml.getBytes(StandardCharsets.UTF_8));
+
+        TemplateRegistry registry = new TemplateRegistry(50L);
+        try {
+            registry.register("statement", new PdfTemplateConfig(config.toString()));
+            final CompiledTemplate pinned = registry.get("statement");
+            PdfTemplateExport export = new PdfTemplateExport(pinned);
+
+            List<ExportRecord> records = new ArrayList<ExportRecord>();
+            for (int i = 0; i < count; i++)
+                records.add(ExportTestSupport.newRecord(i));
+
+            // 修改前的輸出作為基準
+            List<String> expected = new ArrayList<String>();
+            export.batch().export(records, (index, record, pdf) -> expected.add(ExportTestSupport.normalize(pdf)));
+            ByteArrayOutputStream merged = new ByteArrayOutputStream();
+            export.batch().exportMerged(records.iterator(), merged);
+            String expectedMerged = ExportTestSupport.normalize(merged.toByteArray());
+
+            // 批次進行到一半時覆寫範本，並等待重新載入完成
+            final byte[] modified = modify(original, "Template version 2");
+            List<String> actual = new ArrayList<String>();
+            export.batch().export(records, (index, record, pdf) -> {
+                actual.add(ExportTestSupport.normalize(pdf));
+                if (index == count / 2)
+                    rewrite(registry, template, modified, pinned);
+            });
+            int failures = 0;
+            for (int i = 0; i < count; i++) {
+                if (!expected.get(i).equals(actual.get(i))) {
+                    failures++;
+                    System.out.println("record " + i + " not exported with the pinned template");
+                }
+            }
+
+            // 合併匯出也採用同一版本，不混合新舊範本
+            merged.reset();
+            export.batch().exportMerged(records.iterator(), merged);
+            if (!expectedMerged.equals(ExportTestSupport.normalize(merged.toByteArray()))) {
+                failures++;
+                System.out.println("merged output not exported with the pinned template");
+            }
+
+            // 平行匯出進行到一半時再次覆寫範本，各執行緒仍採用同一版本
+            final byte[] modifiedAgain = modify(original, "Template version 3");
+            final CompiledTemplate current = registry.get("statement");
+            List<String> parallel = new ArrayList<String>();
+            export.batch().setParallelism(4).exportParallel(records, (index, record, pdf) -> {
+                parallel.add(ExportTestSupport.normalize(pdf));
+                if (index == count / 2)
+                    rewrite(registry, template, modifiedAgain, current);
+            });
+            for (int i = 0; i < count; i++) {
+                if (!expected.get(i).equals(parallel.get(i))) {
+                    failures++;
+                    System.out.println("parallel record " + i + " not exported with the pinned template");
+                }
+            }
+
+            // 重新載入後的新匯出採用新的版本
+            ExportRecord first = records.get(0);
+            byte[] reloaded = registry.newExport("statement").export(first.getTextFields(), first.getBarcodeFields(),
+                    first.getQrcodeFields(), null, null).toByteArray();
+            if (expected.get(0).equals(ExportTestSupport.normalize(reloaded))) {
+                failures++;
+                System.out.println("reloaded template still exports the old version");
+            }
+
+            System.out.println(count + " records, template rewritten after record " + count / 2 + ", " + failures
+                    + " failures");
+            if (failures > 0)
+                throw new IllegalStateException(failures + " exports not using the expected template version");
+        } finally {
+            registry.close();
+            Files.deleteIfExists(template);
+            Files.deleteIfExists(config);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    /**
+     * 覆寫範本並等待 TemplateRegistry 重新載入
+     */
+    private static void rewrite(TemplateRegistry registry, Path template, byte[] pdf, CompiledTemplate pinned)
+            throws Exception {
+        Files.write(template, pdf);
+        long deadline = System.currentTimeMillis() + RELOAD_TIMEOUT_MILLIS;
+        while (registry.get("statement") == pinned) {
+            if (System.currentTimeMillis() > deadline)
+                throw new IllegalStateException("template not reloaded in " + RELOAD_TIMEOUT_MILLIS + " ms");
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * 新版本的範本：第一頁加上版本文字，欄位不變
+     */
+    private static byte[] modify(byte[] pdf, String version) throws Exception {
+        PdfReader reader = new PdfReader(pdf);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        PdfStamper stamper = new PdfStamper(reader, bos);
+        PdfContentByte cb = stamper.getOverContent(1);
+        cb.beginText();
+        cb.setFontAndSize(BaseFont.createFont(BaseFont.HELVETICA, BaseFont.WINANSI, BaseFont.NOT_EMBEDDED), 12);
+        cb.setTextMatrix(36, 36);
+        cb.showText(version);
+        cb.endText();
+        stamper.close();
+        reader.close();
+        return bos.toByteArray();
+    }
+
+    private static byte[] readResource(String name) throws Exception {
+        try (InputStream in = TemplateReloadTest.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null)
+                throw new IllegalStateException("resource [" + name + "] not found");
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) > 0)
+                bos.write(buffer, 0, n);
+            return bos.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package tools.pdf;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.lowagie.text.pdf.BaseFont;
+
+/**
+ * 字型選擇測試：主要字型有所有字元時共用只有主要字型的 List；<br>
+ * CJK 擴展 B 等主要字型沒有的字元改用有該字的替代字型，所有字型都沒有時列為缺字；<br>
+ * 字型不再使用時字元涵蓋範圍一併釋放
+ *
+ */
+public class GlyphCoverageTest {
+    /** CJK 擴展 B 的第一個字 U+20000 */
+    private static final String EXT_B = new String(Character.toChars(0x20000));
+
+    public static void main(String[] args) throws Exception {
+        String configFile = "config/PdfTemplateConfig-example.xml";
+        CompiledTemplate compiled = CompiledTemplate
+                .compile(new PdfTemplateConfig(configFile, PdfTemplateConfig.ResourceMode.CLASSPATH));
+        String fontName = compiled.getModel().getTextFields().getDefaultFont().getFontName();
+        List<BaseFont> fonts = compiled.getFieldFonts(fontName);
+        ArrayList<BaseFont> primary = compiled.getPrimaryFonts(fontName);
+        int failures = 0;
+
+        // 主要字型有所有字元時不建立新的 List
+        if (GlyphCoverage.select(fonts, primary, "Statement 1") != primary
+                || compiled.getPrimaryFonts(fontName) != primary) {
+            failures++;
+            System.out.println("covered value not kept on the shared primary font list");
+        }
+
+        // 擴展 B 的字改用有該字的字型，都沒有時列為缺字
+        String value = "Statement " + EXT_B;
+        ArrayList<BaseFont> selected = GlyphCoverage.select(fonts, primary, value);
+        BaseFont fallback = null;
+        for (BaseFont font : fonts) {
+            if (font.charExists(0x20000)) {
+                fallback = font;
+                break;
+            }
+        }
+        if (fallback != null) {
+            if (!selected.contains(fallback) || GlyphCoverage.uncovered(fonts, value) != null) {
+                failures++;
+                System.out.println("extension B character not assigned to " + fallback.getPostscriptFontName());
+            }
+        } else if (selected == primary || !EXT_B.equals(GlyphCoverage.uncovered(fonts, value))) {
+            failures++;
+            System.out.println("extension B character not reported as uncovered");
+        }
+
+        // 主要字型沒有、替代字型有的字元：Helvetica 只有西歐字元，希臘字母改用欄位字型
+        BaseFont latin = BaseFont.createFont(BaseFont.HELVETICA, BaseFont.WINANSI, BaseFont.NOT_EMBEDDED);
+        List<BaseFont> latinFirst = Arrays.asList(latin, fonts.get(0));
+        ArrayList<BaseFont> latinOnly = new ArrayList<BaseFont>(latinFirst.subList(0, 1));
+        selected = GlyphCoverage.select(latinFirst, latinOnly, "Statement \u03b1");
+        if (!selected.equals(latinFirst) || GlyphCoverage.uncovered(latinFirst, "Statement \u03b1") != null) {
+            failures++;
+            System.out.println("U+03B1 not assigned to the substitution font");
+        }
+        if (GlyphCoverage.select(latinFirst, latinOnly, "Statement 1") != latinOnly) {
+            failures++;
+            System.out.println("covered value not kept on the primary font");
+        }
+
+        // 實際匯出含擴展 B 的欄位
+        Map<String, Object> textFields = new HashMap<String, Object>();
+        textFields.put("text1", value);
+        byte[] pdf = new PdfTemplateExport(compiled).export(textFields, null, null, null, null).toByteArray();
+        if (pdf.length == 0) {
+            failures++;
+            System.out.println("export with extension B value is empty");
+        }
+
+        // 字元涵蓋範圍不保存字型，字型不再使用時可以釋放
+        if (!isReleased()) {
+            failures++;
+            System.out.println("font not released while its glyph coverage is cached");
+        }
+
+        System.out.println(fonts.size() + " fonts for [" + fontName + "], " + failures + " failures");
+        if (failures > 0)
+            throw new IllegalStateException(failures + " font selection checks failed");
+    }
+
+    /**
+     * 建立不經 BaseFont 快取的字型並查詢涵蓋範圍，放開後檢查是否被回收
+     */
+    private static boolean isReleased() throws Exception {
+        BaseFont font = BaseFont.createFont(BaseFont.HELVETICA, BaseFont.WINANSI, BaseFont.NOT_EMBEDDED, false, null,
+                null);
+        GlyphCoverage.of(font).covers(font, 'A');
+        WeakReference<BaseFont> ref = new WeakReference<BaseFont>(font);
+        font = null;
+        for (int i = 0; i < 50 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        return ref.get() == null;
+    }
+}
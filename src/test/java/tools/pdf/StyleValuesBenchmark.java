@@ -0,0 +1,129 @@
+package tools.pdf;
+
+import java.awt.Color;
+import java.lang.reflect.Field;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * 表格欄位設定值轉換效能比較：查詢表 vs 原反射方式<br>
+ * 每個表格欄位需轉換表頭及內容的字體風格、顏色、對齊、邊框等設定
+ *
+ */
+public class StyleValuesBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+
+        if (resolveByTable() != resolveByReflection()) {
+            throw new IllegalStateException("Result mismatch");
+        }
+
+        // 暖機
+        for (int i = 0; i < iterations; i++) {
+            resolveByReflection();
+            resolveByTable();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            resolveByReflection();
+        }
+        long reflection = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            resolveByTable();
+        }
+        long table = System.nanoTime() - start;
+
+        System.out.printf("reflection  : %.1f ns/column%n", (double) reflection / iterations);
+        System.out.printf("lookup table: %.1f ns/column%n", (double) table / iterations);
+    }
+
+    /**
+     * 一個表格欄位的設定，取自 PdfTemplateConfig-example.xml
+     */
+    private static long resolveByTable() throws Exception {
+        long h = 0;
+        h = h * 31 + value(StyleValues.getFontStyleValues("BOLD | ITALIC", 0));
+        h = h * 31 + value(StyleValues.getColorValues("100, 30, 50", Color.BLACK));
+        h = h * 31 + value(StyleValues.getVerticalAlignValues("ALIGN_MIDDLE", 0));
+        h = h * 31 + value(StyleValues.getHorizontalAlignValues("ALIGN_CENTER", 0));
+        h = h * 31 + value(StyleValues.getRectangleValues("TOP | BOTTOM | LEFT | RIGHT", 0));
+        h = h * 31 + value(StyleValues.getColorValues("BLUE", Color.BLACK));
+        h = h * 31 + value(StyleValues.getColorValues("GREEN", Color.WHITE));
+        h = h * 31 + value(StyleValues.getFontStyleValues("NORMAL", 0));
+        h = h * 31 + value(StyleValues.getColorValues("BLACK", Color.BLACK));
+        h = h * 31 + value(StyleValues.getVerticalAlignValues("ALIGN_MIDDLE", 0));
+        h = h * 31 + value(StyleValues.getHorizontalAlignValues("ALIGN_LEFT", 0));
+        h = h * 31 + value(StyleValues.getRectangleValues("BOTTOM", 0));
+        h = h * 31 + value(StyleValues.getColorValues("BLACK", Color.BLACK));
+        h = h * 31 + value(StyleValues.getColorValues("WHITE", Color.WHITE));
+        return h;
+    }
+
+    private static long resolveByReflection() throws Exception {
+        long h = 0;
+        h = h * 31 + value(getConstantValues("com.lowagie.text.Font", "BOLD | ITALIC", 0));
+        h = h * 31 + value(getColorValues("100, 30, 50", Color.BLACK));
+        h = h * 31 + value(getConstantValues("com.lowagie.text.Element", "ALIGN_MIDDLE", 0));
+        h = h * 31 + value(getConstantValues("com.lowagie.text.Element", "ALIGN_CENTER", 0));
+        h = h * 31 + value(getConstantValues("com.lowagie.text.Rectangle", "TOP | BOTTOM | LEFT | RIGHT", 0));
+        h = h * 31 + value(getColorValues("BLUE", Color.BLACK));
+        h = h * 31 + value(getColorValues("GREEN", Color.WHITE));
+        h = h * 31 + value(getConstantValues("com.lowagie.text.Font", "NORMAL", 0));
+        h = h * 31 + value(getColorValues("BLACK", Color.BLACK));
+        h = h * 31 + value(getConstantValues("com.lowagie.text.Element", "ALIGN_MIDDLE", 0));
+        h = h * 31 + value(getConstantValues("com.lowagie.text.Element", "ALIGN_LEFT", 0));
+        h = h * 31 + value(getConstantValues("com.lowagie.text.Rectangle", "BOTTOM", 0));
+        h = h * 31 + value(getColorValues("BLACK", Color.BLACK));
+        h = h * 31 + value(getColorValues("WHITE", Color.WHITE));
+        return h;
+    }
+
+    private static long value(int value) {
+        return value;
+    }
+
+    private static long value(Color color) {
+        return color.getRGB();
+    }
+
+    /**
+     * 原取得顏色方式
+     */
+    private static Color getColorValues(String Colors, Color defaultColor) throws Exception {
+        if (StringUtils.isEmpty(Colors))
+            return defaultColor;
+        Class<?> c = Class.forName("java.awt.Color");
+        String ColorArray[] = Colors.split(",");
+        if (ColorArray.length == 3) {
+            return new Color(Integer.parseInt(ColorArray[0].trim()), Integer.parseInt(ColorArray[1].trim()),
+                    Integer.parseInt(ColorArray[2].trim()));
+        }
+        return (Color) getFieldValue(c.getField(Colors.trim()));
+    }
+
+    /**
+     * 原取得常數值方式
+     */
+    private static int getConstantValues(String classname, String Names, int defaultValue) throws Exception {
+        if (StringUtils.isEmpty(Names))
+            return defaultValue;
+        int values = 0;
+        for (String Name : Names.split("[|/]")) {
+            Class<?> c = Class.forName(classname);
+            values = values | (int) getFieldValue(c.getField(Name.trim()));
+        }
+        return values;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Object getFieldValue(Field field) throws Exception {
+        if (false == field.isAccessible()) {
+            field.setAccessible(true);
+        }
+        return field.get(null);
+    }
+}